@@ -5,42 +5,69 @@ import android.content.SharedPreferences;
 import android.graphics.Typeface;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.v7.app.AppCompatActivity;
-import android.text.TextUtils;
 import android.util.Log;
 import android.view.View;
 import android.view.inputmethod.EditorInfo;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.EditText;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import com.kingeik.wordbrain.engine.CancellationToken;
+import com.kingeik.wordbrain.engine.Dictionary;
+import com.kingeik.wordbrain.engine.DictionaryImporter;
+import com.kingeik.wordbrain.engine.InvalidProblemException;
+import com.kingeik.wordbrain.engine.Problem;
+import com.kingeik.wordbrain.engine.ResultCache;
+import com.kingeik.wordbrain.engine.ResultIndex;
+import com.kingeik.wordbrain.engine.Solution;
+import com.kingeik.wordbrain.engine.WordlistCache;
+
 import java.io.File;
-import java.io.FileOutputStream;
-import java.util.ArrayList;
+import java.io.InputStream;
 import java.util.Calendar;
 import java.util.List;
-import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class MainActivity extends AppCompatActivity {
 
     private static int ACTIVITY_CHOOSE_FILE = 1;
 
-    public static final String validChars = "abcdefghijklmnopqrstuvwxyzäöüß";
-    public static final char placeholder = '_';
-
     LinearLayout baseLayout;
-    public static List<String> wordlist;
+    public static Dictionary dictionary;
+    // filtered wordlists of earlier solves, kept in the cache dir between starts
+    public static WordlistCache wordlistCache;
+    private static final long WORDLIST_CACHE_BYTES = 16 * 1024 * 1024;
+    // results of earlier solves, levels played again are shown right away
+    public static ResultCache resultCache;
+    private static final long RESULT_CACHE_BYTES = 8 * 1024 * 1024;
 
     Thread wordlistLoader = null, problemSolver = null;
     boolean continueSolving, autoAdvance;
+    CancellationToken solveCancellation;
     Problem lastProblem;
     List<Solution> latestSolutions;
     Solution shownSolution;
     int currentSolutionIndex, currentWordIndex, solvedWordCount;
 
+    // result screen, only the texts are updated while it's shown
+    TextView resultsCountText, resultsPositionText, resultsWordText;
+    LinearLayout resultsNavigation, resultsGrid, resultsFeedback;
+    TextView[][] resultsCells;
+    ResultIndex shownResults;
+    int shownWordCount;
+    long inputsLockedAt;
+
+    private static final long RENDER_INTERVAL = 100;
+    final AtomicBoolean renderPending = new AtomicBoolean(false);
+    volatile boolean renderLockInputs;
+    volatile long lastRender;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -51,19 +78,46 @@ public class MainActivity extends AppCompatActivity {
         renderUI(false);
     }
 
-    private void renderUIOnUIThread(final boolean lockInputs) {
-        runOnUiThread(new Runnable() {
+    // for background threads, the solvers ask for a render on every result: all requests within one interval are
+    // merged into a single render
+    private void renderUIOnUIThread(boolean lockInputs) {
+        if (lockInputs)
+            renderLockInputs = true;
+        if (!renderPending.compareAndSet(false, true))
+            return; // the pending render shows this as well
+
+        long delay = Math.max(0, lastRender + RENDER_INTERVAL - SystemClock.uptimeMillis());
+        baseLayout.postDelayed(new Runnable() {
             @Override
             public void run() {
-                renderUI(lockInputs);
+                renderPending.set(false);
+                boolean lock = renderLockInputs;
+                renderLockInputs = false;
+                renderUI(lock);
             }
-        });
+        }, delay);
     }
 
     private void renderUI(final boolean lockInputs) {
+        lastRender = SystemClock.uptimeMillis();
 
         File wordlist = new File(getFilesDir(), "words.bin");
+
+        if (wordlist.exists() && latestSolutions != null) {
+            // we got some results, show them!
+            // the views are built once, afterwards only the texts which changed are set
+            if (resultsCountText == null) {
+                baseLayout.removeAllViews();
+                buildResultsUI();
+                shownSolution = null;
+            }
+            updateResultsUI(lockInputs);
+            return;
+        }
+
         baseLayout.removeAllViews();
+        resultsCountText = null;
+        resultsCells = null;
 
         if (!wordlist.exists()) {
             // show the user a way to download wordlist
@@ -98,219 +152,11 @@ public class MainActivity extends AppCompatActivity {
                 }
             });
             baseLayout.addView(btn);
-        } else if (latestSolutions != null) {
-            // we got some results, show them!
-
-            List<Solution> allSolutions = latestSolutions;
-
-            // local variables to prevent interference from other threads
-            final int solvedWordCount = this.solvedWordCount;
-            final List<Solution> shownSolutions = new ArrayList<>();
-            final long startTime = Calendar.getInstance().getTimeInMillis();
-
-            for (Solution s : allSolutions) {
-                if (!s.isInvalid()) {
-                    shownSolutions.add(s);
-                }
-            }
-
-            if (autoAdvance && currentWordIndex < solvedWordCount - 1) {
-                currentWordIndex++;
-            }
-
-            autoAdvance = (currentWordIndex >= solvedWordCount);
-
-            currentSolutionIndex = Math.min(shownSolutions.size() - 1, currentSolutionIndex);
-            currentWordIndex = Math.min(solvedWordCount - 1, currentWordIndex);
-
-            TextView tv = new TextView(this);
-            tv.setText(String.format(getString(R.string.ui_got_results), shownSolutions.size(), solvedWordCount));
-            baseLayout.addView(tv);
-
-            Button btn;
-            if (shownSolutions.size() > 0) {
-                LinearLayout ll = new LinearLayout(this);
-                ll.setOrientation(LinearLayout.HORIZONTAL);
-
-                btn = new Button(this);
-                btn.setText("<<");
-                btn.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View view) {
-                        if (currentSolutionIndex > 0) {
-                            currentSolutionIndex--;
-                            renderUIOnUIThread(false);
-                        }
-                    }
-                });
-                ll.addView(btn);
-
-                btn = new Button(this);
-                btn.setText("<");
-                btn.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View view) {
-                        if (currentWordIndex > 0) {
-                            currentWordIndex--;
-                            renderUIOnUIThread(false);
-                        }
-                    }
-                });
-                ll.addView(btn);
-
-                btn = new Button(this);
-                btn.setText(">");
-                btn.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View view) {
-                        if (currentWordIndex < solvedWordCount - 1) {
-                            currentWordIndex++;
-                            renderUIOnUIThread(false);
-                        }
-                    }
-                });
-                ll.addView(btn);
-
-                btn = new Button(this);
-                btn.setText(">>");
-                btn.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View view) {
-                        if (currentSolutionIndex < shownSolutions.size() - 1) {
-                            currentSolutionIndex++;
-                            renderUIOnUIThread(false);
-                        }
-                    }
-                });
-                ll.addView(btn);
-
-                baseLayout.addView(ll);
-
-                tv = new TextView(this);
-                tv.setText(getString(R.string.ui_results_solution) + ": " + (currentSolutionIndex + 1) + ", " + getString(R.string.ui_results_word) + ": " + (currentWordIndex + 1));
-                baseLayout.addView(tv);
-
-                Solution currentSolution = shownSolutions.get(currentSolutionIndex);
-                for (int i = 1; i < solvedWordCount - currentWordIndex; i++) {
-                    currentSolution = currentSolution.previousSolution;
-                }
-
-                shownSolution = currentSolution;
-
-                int height = currentSolution.lettersBeforeSolution.length;
-                int width = currentSolution.lettersBeforeSolution[0].length;
-
-                for (int row = 0; row < height; row++) {
-                    ll = new LinearLayout(this);
-                    ll.setOrientation(LinearLayout.HORIZONTAL);
-                    for (int col = 0; col < width; col++) {
-                        tv = new TextView(this);
-                        int solutionPath = currentSolution.solutionPath[row][col];
-                        tv.setText(currentSolution.lettersBeforeSolution[row][col] + "\n" + (solutionPath != -1 ? (solutionPath + 1) : ""));
-                        tv.setTypeface(Typeface.MONOSPACE);
-                        ll.addView(tv);
-                    }
-                    baseLayout.addView(ll);
-                }
-
-                tv = new TextView(this);
-                tv.setText(currentSolution.foundWord);
-                baseLayout.addView(tv);
-
-                ll = new LinearLayout(this);
-                ll.setOrientation(LinearLayout.HORIZONTAL);
-
-                btn = new Button(this);
-                btn.setText(R.string.ui_results_correct);
-                btn.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View view) {
-                        // add correct logic
-
-                        // stop user from hitting button right after UI update
-                        long now = Calendar.getInstance().getTimeInMillis();
-                        if (lockInputs && (now - startTime) < 300)
-                            return;
-
-                        for (Solution s : shownSolutions) {
-                            for (int i = 1; i < solvedWordCount - currentWordIndex; i++) {
-                                s = s.previousSolution;
-                            }
-                            if (!shownSolution.foundWord.equals(s.foundWord))
-                                s.setSolutionInvalid();
-                        }
-
-                        lastProblem.setHintForWord(currentWordIndex, shownSolution.foundWord);
-
-                        SharedPreferences sp = MainActivity.this.getApplicationContext().getSharedPreferences("lastProblem", MODE_PRIVATE);
-                        SharedPreferences.Editor edit = sp.edit();
-                        edit.putString("lengths", lastProblem.getLengthString());
-                        edit.apply();
-
-                        currentWordIndex++;
-
-                        if (currentWordIndex >= lastProblem.getWordCount()) {
-                            // exit on last word correct
-                            latestSolutions = null;
-                        }
-
-                        renderUIOnUIThread(false);
-                    }
-                });
-                ll.addView(btn);
-
-                btn = new Button(this);
-                btn.setText(R.string.ui_results_wrong);
-                btn.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View view) {
-                        // add wrong logic
-
-                        // stop user from hitting button right after UI update
-                        long now = Calendar.getInstance().getTimeInMillis();
-                        if (lockInputs && (now - startTime) < 300)
-                            return;
-
-                        for (Solution s : shownSolutions) {
-                            for (int i = 1; i < solvedWordCount - currentWordIndex; i++) {
-                                s = s.previousSolution;
-                            }
-                            if (shownSolution.foundWord.equals(s.foundWord))
-                                s.setSolutionInvalid();
-                        }
-                        renderUIOnUIThread(false);
-                    }
-                });
-                ll.addView(btn);
-
-                baseLayout.addView(ll);
-            }
-
-            btn = new Button(this);
-            btn.setText(R.string.ui_results_leave);
-            btn.setOnClickListener(new View.OnClickListener() {
-                @Override
-                public void onClick(View view) {
-                    // stop all solving (if any)
-                    continueSolving = false;
-                    for (Solution s : shownSolutions) {
-                        s.setSolutionInvalid();
-                    }
-
-                    lastProblem = null;
-                    latestSolutions = null;
-                    currentSolutionIndex = 0;
-                    currentWordIndex = 0;
-                    renderUIOnUIThread(false);
-                }
-            });
-            baseLayout.addView(btn);
-
         } else {
             // we got a wordlist
             // read it, user inputs problem to solve
 
-            if (MainActivity.wordlist == null && this.wordlistLoader == null) {
+            if (MainActivity.dictionary == null && this.wordlistLoader == null) {
                 this.wordlistLoader = new Thread(new Runnable() {
                     @Override
                     public void run() {
@@ -343,12 +189,17 @@ public class MainActivity extends AppCompatActivity {
             lengthsEdit.setText(lastLengths);
             baseLayout.addView(lengthsEdit);
 
+            final CheckBox depthFirstCheck = new CheckBox(this);
+            depthFirstCheck.setText(R.string.ui_depth_first);
+            depthFirstCheck.setChecked(sp.getBoolean("depthFirst", false));
+            baseLayout.addView(depthFirstCheck);
+
             Button btn = new Button(this);
             btn.setText(R.string.ui_ok);
             btn.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View view) {
-                    if (MainActivity.wordlist == null || MainActivity.this.wordlistLoader != null) {
+                    if (MainActivity.dictionary == null || MainActivity.this.wordlistLoader != null) {
                         showToast(R.string.ui_wait_for_wordlist, false);
                         return;
                     }
@@ -361,17 +212,19 @@ public class MainActivity extends AppCompatActivity {
                     continueSolving = true;
                     final String problem = problemEdit.getText().toString();
                     final String lengths = lengthsEdit.getText().toString();
+                    final boolean depthFirst = depthFirstCheck.isChecked();
 
                     SharedPreferences sp = MainActivity.this.getApplicationContext().getSharedPreferences("lastProblem", MODE_PRIVATE);
                     SharedPreferences.Editor edit = sp.edit();
                     edit.putString("problem", problem);
                     edit.putString("lengths", lengths);
+                    edit.putBoolean("depthFirst", depthFirst);
                     edit.apply();
 
                     MainActivity.this.problemSolver = new Thread(new Runnable() {
                         @Override
                         public void run() {
-                            solveProblem(problem, lengths);
+                            solveProblem(problem, lengths, depthFirst);
                         }
                     });
                     MainActivity.this.problemSolver.start();
@@ -382,6 +235,238 @@ public class MainActivity extends AppCompatActivity {
 
     }
 
+    private void buildResultsUI() {
+        resultsCountText = new TextView(this);
+        baseLayout.addView(resultsCountText);
+
+        resultsNavigation = new LinearLayout(this);
+        resultsNavigation.setOrientation(LinearLayout.HORIZONTAL);
+
+        Button btn = new Button(this);
+        btn.setText("<<");
+        btn.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                if (currentSolutionIndex > 0) {
+                    currentSolutionIndex--;
+                    renderUI(false);
+                }
+            }
+        });
+        resultsNavigation.addView(btn);
+
+        btn = new Button(this);
+        btn.setText("<");
+        btn.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                if (currentWordIndex > 0) {
+                    currentWordIndex--;
+                    renderUI(false);
+                }
+            }
+        });
+        resultsNavigation.addView(btn);
+
+        btn = new Button(this);
+        btn.setText(">");
+        btn.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                if (currentWordIndex < shownWordCount - 1) {
+                    currentWordIndex++;
+                    renderUI(false);
+                }
+            }
+        });
+        resultsNavigation.addView(btn);
+
+        btn = new Button(this);
+        btn.setText(">>");
+        btn.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                if (currentSolutionIndex < shownResults.size() - 1) {
+                    currentSolutionIndex++;
+                    renderUI(false);
+                }
+            }
+        });
+        resultsNavigation.addView(btn);
+
+        baseLayout.addView(resultsNavigation);
+
+        resultsPositionText = new TextView(this);
+        baseLayout.addView(resultsPositionText);
+
+        // the cells are added once the size of the board is known
+        resultsGrid = new LinearLayout(this);
+        resultsGrid.setOrientation(LinearLayout.VERTICAL);
+        baseLayout.addView(resultsGrid);
+
+        resultsWordText = new TextView(this);
+        baseLayout.addView(resultsWordText);
+
+        resultsFeedback = new LinearLayout(this);
+        resultsFeedback.setOrientation(LinearLayout.HORIZONTAL);
+
+        btn = new Button(this);
+        btn.setText(R.string.ui_results_correct);
+        btn.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                // add correct logic
+
+                // stop user from hitting button right after UI update
+                if (isInputLocked())
+                    return;
+
+                // drops the other results and narrows down the search if it's still running
+                lastProblem.acceptWord(currentWordIndex, shownSolution.getFoundWord());
+
+                SharedPreferences sp = MainActivity.this.getApplicationContext().getSharedPreferences("lastProblem", MODE_PRIVATE);
+                SharedPreferences.Editor edit = sp.edit();
+                edit.putString("lengths", lastProblem.getLengthString());
+                edit.apply();
+
+                currentWordIndex++;
+
+                if (currentWordIndex >= lastProblem.getWordCount()) {
+                    // exit on last word correct
+                    latestSolutions = null;
+                }
+
+                renderUI(false);
+            }
+        });
+        resultsFeedback.addView(btn);
+
+        btn = new Button(this);
+        btn.setText(R.string.ui_results_wrong);
+        btn.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                // add wrong logic
+
+                // stop user from hitting button right after UI update
+                if (isInputLocked())
+                    return;
+
+                lastProblem.rejectWord(currentWordIndex, shownSolution.getFoundWord());
+                renderUI(false);
+            }
+        });
+        resultsFeedback.addView(btn);
+
+        baseLayout.addView(resultsFeedback);
+
+        btn = new Button(this);
+        btn.setText(R.string.ui_results_leave);
+        btn.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                // stop all solving (if any)
+                continueSolving = false;
+                if (solveCancellation != null)
+                    solveCancellation.cancel();
+
+                lastProblem = null;
+                latestSolutions = null;
+                currentSolutionIndex = 0;
+                currentWordIndex = 0;
+                renderUI(false);
+            }
+        });
+        baseLayout.addView(btn);
+    }
+
+    private void buildResultsGrid(int height, int width) {
+        resultsGrid.removeAllViews();
+        resultsCells = new TextView[height][width];
+        for (int row = 0; row < height; row++) {
+            LinearLayout ll = new LinearLayout(this);
+            ll.setOrientation(LinearLayout.HORIZONTAL);
+            for (int col = 0; col < width; col++) {
+                TextView tv = new TextView(this);
+                tv.setTypeface(Typeface.MONOSPACE);
+                ll.addView(tv);
+                resultsCells[row][col] = tv;
+            }
+            resultsGrid.addView(ll);
+        }
+    }
+
+    private void updateResultsUI(boolean lockInputs) {
+        // local copies, the solver threads may change them in the meantime
+        final int solvedWordCount = this.solvedWordCount;
+        // only the valid results, grouped by their words so the buttons don't have to walk all of them
+        ResultIndex shownSolutions = lastProblem.getResultIndex(solvedWordCount - 1);
+        shownResults = shownSolutions;
+        shownWordCount = solvedWordCount;
+
+        if (autoAdvance && currentWordIndex < solvedWordCount - 1) {
+            currentWordIndex++;
+        }
+
+        autoAdvance = (currentWordIndex >= solvedWordCount);
+
+        currentSolutionIndex = Math.min(shownSolutions.size() - 1, currentSolutionIndex);
+        currentWordIndex = Math.min(solvedWordCount - 1, currentWordIndex);
+
+        setTextIfChanged(resultsCountText, String.format(getString(R.string.ui_got_results), shownSolutions.size(), solvedWordCount));
+
+        int visibility = shownSolutions.size() > 0 ? View.VISIBLE : View.GONE;
+        resultsNavigation.setVisibility(visibility);
+        resultsPositionText.setVisibility(visibility);
+        resultsGrid.setVisibility(visibility);
+        resultsWordText.setVisibility(visibility);
+        resultsFeedback.setVisibility(visibility);
+        if (shownSolutions.size() == 0)
+            return;
+
+        setTextIfChanged(resultsPositionText, getString(R.string.ui_results_solution) + ": " + (currentSolutionIndex + 1) + ", " + getString(R.string.ui_results_word) + ": " + (currentWordIndex + 1));
+
+        Solution currentSolution = shownSolutions.get(currentSolutionIndex);
+        for (int i = 1; i < solvedWordCount - currentWordIndex; i++) {
+            currentSolution = currentSolution.getPreviousSolution();
+        }
+
+        // updates with more results keep the shown solution, only lock the inputs if it actually changed
+        if (lockInputs && currentSolution != shownSolution)
+            inputsLockedAt = Calendar.getInstance().getTimeInMillis();
+        if (currentSolution == shownSolution)
+            return;
+        shownSolution = currentSolution;
+
+        char[][] lettersBeforeSolution = currentSolution.getLettersBeforeSolution();
+        int[][] solutionPath = currentSolution.getSolutionPath();
+        int height = currentSolution.getHeight();
+        int width = currentSolution.getWidth();
+
+        if (resultsCells == null || resultsCells.length != height || resultsCells[0].length != width)
+            buildResultsGrid(height, width);
+
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                int pathIndex = solutionPath[row][col];
+                setTextIfChanged(resultsCells[row][col], lettersBeforeSolution[row][col] + "\n" + (pathIndex != -1 ? (pathIndex + 1) : ""));
+            }
+        }
+
+        setTextIfChanged(resultsWordText, currentSolution.getFoundWord());
+    }
+
+    // setText() lays out the view again even if the text is the same
+    private void setTextIfChanged(TextView tv, String text) {
+        if (!text.contentEquals(tv.getText()))
+            tv.setText(text);
+    }
+
+    private boolean isInputLocked() {
+        long now = Calendar.getInstance().getTimeInMillis();
+        return (now - inputsLockedAt) < 300;
+    }
+
     private void btnDownloadClick() {
         String url = getString(R.string.url_dictcc_download);
         Intent i = new Intent(Intent.ACTION_VIEW);
@@ -422,23 +507,37 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void loadWordlist() {
-        wordlist = new ArrayList<>();
         try {
-            Scanner sc = new Scanner(new File(getFilesDir(), "words.bin"));
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine();
-                wordlist.add(line.trim());
+            File file = new File(getFilesDir(), "words.bin");
+            if (!Dictionary.isBinary(file)) {
+                // wordlists imported by older versions are plain text, convert them once (write() keeps the text
+                // file until the binary one is complete)
+                Log.v("loadWordlist", "converting text wordlist");
+                Dictionary.write(Dictionary.loadText(file), file);
+            } else if (Dictionary.upgrade(file)) {
+                // binary ones from before the letter masks or the checksum are rewritten once instead of working
+                // those out on every start
+                Log.v("loadWordlist", "upgraded binary wordlist");
             }
-            if (sc.ioException() != null)
-                throw sc.ioException();
+            dictionary = Dictionary.open(file);
         } catch (Exception e) {
             Log.e("loadWordlist", "Something went wrong while reading!", e);
             showToast(R.string.ui_toast_error_read, true);
-            wordlist = null;
+            dictionary = null;
             this.wordlistLoader = null;
             return;
         }
-        showToast(String.format(getString(R.string.ui_lines_processed), wordlist.size()), false);
+        wordlistCache = new WordlistCache(dictionary, WORDLIST_CACHE_BYTES);
+        resultCache = new ResultCache(dictionary, getResultCacheDir(), RESULT_CACHE_BYTES);
+        try {
+            int entries = wordlistCache.load(getWordlistCacheFile());
+            Log.v("loadWordlist", "Got " + entries + " cached problem wordlists");
+        } catch (Exception e) {
+            // only a cache, the wordlists are filtered again
+            Log.w("loadWordlist", "Could not read the wordlist cache", e);
+            wordlistCache.clear();
+        }
+        showToast(String.format(getString(R.string.ui_lines_processed), dictionary.size()), false);
         this.wordlistLoader = null;
     }
 
@@ -446,130 +545,50 @@ public class MainActivity extends AppCompatActivity {
 
         Log.v("buildWordlist", "starting, file is " + sourceFile.toString());
 
-        List<String> words = new ArrayList<>(1000000);
+        File wordlist = new File(getFilesDir(), "words.bin");
+        final long[] lastProgress = { Calendar.getInstance().getTimeInMillis() };
 
-        int readLines = 0;
+        int wordCount;
         try {
-            Scanner sc = new Scanner(getContentResolver().openInputStream(sourceFile));
-            String lastAdded = "";
-            while (sc.hasNextLine()) {
-                String line = sc.nextLine();
-                if (readLines++ % 10000 == 0) {
-                    final int _read = readLines - 1;
-                    showToast(String.format(getString(R.string.ui_lines_processed), _read), false);
-                    Log.v("buildWordlist", "read " + readLines + " lines");
-                }
-
-                line = line.trim();
-                if (line.startsWith("#") || line.isEmpty()) {
-                    continue;
-                }
-
-                line = line.split("\t")[0].toLowerCase();
-
-                String word = line.split(" ")[0];
-
-                boolean valid = true;
-                for (char c : word.toCharArray()) {
-                    if (!validChars.contains(new String(new char[] { c }))) {
-                        valid = false;
-                        break;
+            InputStream in = getContentResolver().openInputStream(sourceFile);
+            try {
+                wordCount = DictionaryImporter.importDictCc(in, wordlist, new DictionaryImporter.ProgressListener() {
+                    @Override
+                    public void onProgress(long bytesRead, int wordCount) {
+                        // don't flood the user with toasts, one every few seconds is enough
+                        long now = Calendar.getInstance().getTimeInMillis();
+                        if (now - lastProgress[0] < 3000)
+                            return;
+                        lastProgress[0] = now;
+                        showToast(String.format(getString(R.string.ui_import_progress), bytesRead / (1024 * 1024), wordCount), false);
+                        Log.v("buildWordlist", "read " + bytesRead + " bytes, got " + wordCount + " words");
                     }
-                }
-                if (valid && !word.equals(lastAdded)) { // we assume a sorted dictionary to avoid expensive .contains on a big list
-                    words.add(word);
-                    lastAdded = word;
-                }
+                });
+            } finally {
+                in.close();
             }
-            if (sc.ioException() != null)
-                throw sc.ioException();
+            MainActivity.dictionary = Dictionary.open(wordlist);
+            // the ids of the old wordlist mean nothing in the new one
+            MainActivity.wordlistCache = new WordlistCache(MainActivity.dictionary, WORDLIST_CACHE_BYTES);
+            getWordlistCacheFile().delete();
+            MainActivity.resultCache = new ResultCache(MainActivity.dictionary, getResultCacheDir(), RESULT_CACHE_BYTES);
+            MainActivity.resultCache.clear();
         } catch (Exception e) {
-            Log.e("buildWordlist", "Something went wrong while reading!", e);
+            Log.e("buildWordlist", "Something went wrong while importing!", e);
             showToast(R.string.ui_toast_error_read, true);
             return;
         }
 
-
-        /*String file;
-
-        try {
-            InputStream in = getContentResolver().openInputStream(sourceFile);
-
-            int byteLength;
-            byte[] buffer = new byte[1024 * 128];
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            while ((byteLength = in.read(buffer)) != -1) {
-                byte[] copy = Arrays.copyOf(buffer, byteLength);
-                out.write(copy, 0, copy.length);
-            }
-            file = out.toString();
-
-            out.close();
-            in.close();
-        } catch (Exception e) {
-            Log.e("buildWordlist", "Something went wrong while reading!", e);
-            Toast.makeText(this, R.string.ui_toast_error_read, Toast.LENGTH_LONG).show();
-            return;
-        }
-
-        Log.v("buildWordlist", "file read");
-        int readLines = 0;
-
-        while (file.contains("\n")) {
-
-            String[] split = file.split("\n", 2);
-            String line = split[0];
-            file = split[1];
-
-            if (readLines++ % 10 == 0)
-                Log.v("buildWordlist", "read " + readLines + " lines");
-
-            line = line.trim();
-            if (line.startsWith("#") || line.isEmpty()) {
-                continue;
-            }
-
-            line = line.split("\t")[0].toLowerCase();
-
-            String word = line.split(" ")[0];
-
-            boolean valid = true;
-            for (char c : word.toCharArray()) {
-                if (!validChars.contains(new String(new char[] { c }))) {
-                    valid = false;
-                    break;
-                }
-            }
-            if (valid && !words.contains(word))
-                words.add(word);
-        }*/
-
-        Log.v("buildWordlist", "Got " + words.size() + " distinct words");
-
-        File wordlist = new File(getFilesDir(), "words.bin");
-
-        try {
-            FileOutputStream out = new FileOutputStream(wordlist, false);
-            out.write(TextUtils.join("\n", words).getBytes());
-            out.close();
-        } catch (Exception e) {
-            Log.e("buildWordlist", "Something went wrong while writing!", e);
-            showToast(R.string.ui_toast_error_write, true);
-            return;
-        }
-
-        Log.v("buildWordlist", "wordlist written!");
-
-        MainActivity.wordlist = words;
+        Log.v("buildWordlist", "Got " + wordCount + " distinct words, wordlist written!");
 
         showToast(R.string.ui_toast_success, true);
         renderUIOnUIThread(true);
     }
 
-    private void solveProblem(String problemString, String lenghts) {
+    private void solveProblem(String problemString, String lenghts, boolean depthFirst) {
         Log.v("solveProblem", problemString + "\n" + lenghts);
 
-        if (wordlist == null || this.wordlistLoader != null) {
+        if (dictionary == null || this.wordlistLoader != null) {
             Log.w("solveProblem", "No complete wordlist given!");
             this.problemSolver = null;
             return;
@@ -577,19 +596,40 @@ public class MainActivity extends AppCompatActivity {
 
         Problem problem;
         try {
-            problem = new Problem(this, problemString, lenghts);
+            problem = new Problem(problemString, lenghts, dictionary);
+        } catch (InvalidProblemException e) {
+            showToast(getErrorMessage(e.getReason()), false);
+            this.problemSolver = null;
+            return;
         } catch (Exception e) {
             showToast(e.getMessage(), false);
             this.problemSolver = null;
             return;
         }
         Log.v("solveProblem", "H:" + problem.getMatrix().getHeigth() + ";W:" + problem.getMatrix().getWidth());
+        problem.setWordlistCache(wordlistCache);
+        problem.setResultCache(resultCache);
+
+        // "leave" cancels this, the solver threads are free again right away instead of searching on
+        solveCancellation = new CancellationToken();
+        problem.setCancellationToken(solveCancellation);
 
         lastProblem = problem;
         currentSolutionIndex = 0;
         currentWordIndex = 0;
         showToast(R.string.ui_toast_start_solving, false);
 
+        if (problem.solveFromCache(null, 0)) {
+            solvedWordCount = problem.getWordCount();
+            latestSolutions = problem.getFinalResults();
+            Log.v("solveProblem", "Got " + latestSolutions.size() + " results from an earlier solve!");
+            if (latestSolutions.isEmpty())
+                showToast(R.string.ui_toast_error_no_solution, true);
+            renderUIOnUIThread(true);
+            this.problemSolver = null;
+            return;
+        }
+
         // TODO: actual solving process
         // + filter wordlist to contain only potential useful words
         // + start a thread for every starting letter
@@ -601,10 +641,34 @@ public class MainActivity extends AppCompatActivity {
         // - display results
 
         int length = problem.buildProblemWordlist(); // this call is for debug purposes, .buildWordWordlist() would also call this (once)
-        Log.v("solveProblem", "Problem wordlist has " + length + " / " + wordlist.size() + " words");
+        Log.v("solveProblem", "Problem wordlist has " + length + " / " + dictionary.size() + " words");
+
+        if (depthFirst) {
+            solveProblemDepthFirst(problem);
+        } else {
+            solveProblemWordByWord(problem);
+        }
+
+        // END OF SOLVING
+
+        if (continueSolving) {
+            latestSolutions = problem.getFinalResults();
+            Log.v("solveProblem", "Got " + latestSolutions.size() + " results!");
+
+            // show results
+            renderUIOnUIThread(true);
+        }
 
+        // after the search, writing these shouldn't delay the first results
+        if (continueSolving)
+            problem.cacheResults();
+        saveWordlistCache();
+        this.problemSolver = null;
+    }
+
+    private void solveProblemWordByWord(Problem problem) {
         for (int i = 0; i < problem.getWordCount() && continueSolving; i++) {
-            length = problem.buildWordWordlist();
+            int length = problem.buildWordWordlist();
             Log.v("solveProblem", "Word wordlist has " + length + " words");
 
             boolean started = problem.startSolvers();
@@ -631,18 +695,72 @@ public class MainActivity extends AppCompatActivity {
                     }
                 }
         }
+    }
 
-        // END OF SOLVING
+    private void solveProblemDepthFirst(final Problem problem) {
+        int length = problem.buildAllWordWordlists();
+        Log.v("solveProblem", "Word wordlists have " + length + " words");
 
-        if (continueSolving) {
-            latestSolutions = problem.getFinalResults();
-            Log.v("solveProblem", "Got " + latestSolutions.size() + " results!");
+        // results of later words are only known once earlier words are done, show all words right away
+        solvedWordCount = problem.getWordCount();
+        final AtomicBoolean gotFirst = new AtomicBoolean(false);
 
-            // show results
-            renderUIOnUIThread(true);
+        boolean started = problem.startSolvers(new Problem.SolutionListener() {
+            @Override
+            public void onSolutionFound(Solution solution) {
+                // show the first complete solution while the search continues
+                if (continueSolving && gotFirst.compareAndSet(false, true)) {
+                    latestSolutions = problem.copyFinalResults();
+                    Log.v("solveProblem", "Got first result!");
+                    renderUIOnUIThread(true);
+                }
+            }
+        });
+
+        if (!started) {
+            Log.e("solveProblem", "Could not start solvers!");
+            return;
         }
 
-        this.problemSolver = null;
+        problem.waitForSolvers();
+
+        if (continueSolving && !gotFirst.get()) {
+            showToast(R.string.ui_toast_error_no_solution, true);
+            Log.w("solveProblem", "Could not find a complete solution");
+        }
+    }
+
+    private File getWordlistCacheFile() {
+        return new File(getCacheDir(), "wordlists.cache");
+    }
+
+    private File getResultCacheDir() {
+        return new File(getCacheDir(), "results");
+    }
+
+    private void saveWordlistCache() {
+        WordlistCache cache = wordlistCache;
+        if (cache == null || !cache.isChanged())
+            return;
+        try {
+            cache.save(getWordlistCacheFile());
+        } catch (Exception e) {
+            Log.w("saveWordlistCache", "Could not write the wordlist cache", e);
+        }
+    }
+
+    private int getErrorMessage(InvalidProblemException.Reason reason) {
+        switch (reason) {
+            case INCONSISTENT_LINE_LENGTH:
+                return R.string.ui_toast_inconsistent_line_length;
+            case INVALID_CHARS:
+                return R.string.ui_toast_unsolvabe_invalid_chars;
+            case INVALID_LENGTH:
+                return R.string.ui_toast_unsolvable_invalid_length;
+            case CHARS_MISMATCH:
+            default:
+                return R.string.ui_toast_unsolvable_chars_mismatch;
+        }
     }
 
     private void showToast(final int resId, final boolean durationLong) {
@@ -0,0 +1,76 @@
+package com.kingeik.wordbrain.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+// fixed, generated boards and wordlists so numbers stay comparable across releases
+public final class Corpus {
+
+    public static final int MIN_BOARD_SIZE = 3;
+    public static final int MAX_BOARD_SIZE = 8;
+
+    // weighted roughly like german text, so words share prefixes the way real ones do
+    private static final String LETTERS = "eeeeeeennnnniiiiisssssrrrrraaaaattttthhhhdddduuullllcccggmmoobbwffkzpvüäöß";
+
+    private Corpus() {
+    }
+
+    // every row is a word of the wordlist, so each board has at least one complete solution
+    public static String[] boardWords(int size) {
+        Random random = new Random(size);
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            words[i] = randomWord(random, size);
+        }
+        return words;
+    }
+
+    public static String board(int size) {
+        String[] words = boardWords(size);
+        StringBuilder board = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                board.append('\n');
+            board.append(words[i]);
+        }
+        return board.toString();
+    }
+
+    public static String lengths(int size) {
+        StringBuilder lengths = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0)
+                lengths.append(',');
+            lengths.append(size);
+        }
+        return lengths.toString();
+    }
+
+    // sorted like the dict.cc exports, contains the words of all boards
+    public static List<String> wordlist(int wordCount) {
+        Set<String> words = new TreeSet<>();
+        for (int size = MIN_BOARD_SIZE; size <= MAX_BOARD_SIZE; size++) {
+            for (String word : boardWords(size)) {
+                words.add(word);
+            }
+        }
+
+        Random random = new Random(wordCount);
+        while (words.size() < wordCount) {
+            words.add(randomWord(random, MIN_BOARD_SIZE + random.nextInt(MAX_BOARD_SIZE - MIN_BOARD_SIZE + 1)));
+        }
+        return new ArrayList<>(words);
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] word = new char[length];
+        for (int i = 0; i < length; i++) {
+            word[i] = LETTERS.charAt(random.nextInt(LETTERS.length()));
+        }
+        return new String(word);
+    }
+
+}
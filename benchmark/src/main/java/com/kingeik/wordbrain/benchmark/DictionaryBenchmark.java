@@ -0,0 +1,117 @@
+package com.kingeik.wordbrain.benchmark;
+
+import com.kingeik.wordbrain.engine.Dictionary;
+import com.kingeik.wordbrain.engine.Problem;
+import com.kingeik.wordbrain.engine.WordlistCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// loading the wordlist and filtering it for a problem and its next word, the cached variants solve a board
+// which was filtered before
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DictionaryBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int wordCount;
+
+    @Param({"3", "5", "8"})
+    public int size;
+
+    private List<String> wordlist;
+    private File wordlistFile;
+    private File binaryFile;
+    private Dictionary dictionary;
+    private Problem problem;
+    private WordlistCache wordlistCache;
+    private Problem cachedProblem;
+
+    @Setup(Level.Trial)
+    public void writeWordlist() throws IOException {
+        wordlist = Corpus.wordlist(wordCount);
+        wordlistFile = File.createTempFile("words", ".txt");
+
+        StringBuilder text = new StringBuilder();
+        for (String word : wordlist) {
+            text.append(word).append('\n');
+        }
+        FileOutputStream out = new FileOutputStream(wordlistFile, false);
+        try {
+            out.write(text.toString().getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+
+        binaryFile = File.createTempFile("words", ".bin");
+        Dictionary.write(wordlist, binaryFile);
+        dictionary = Dictionary.open(binaryFile);
+
+        wordlistCache = new WordlistCache(dictionary, Long.MAX_VALUE);
+        Problem first = new Problem(Corpus.board(size), Corpus.lengths(size), dictionary);
+        first.setWordlistCache(wordlistCache);
+        first.buildAllWordWordlists();
+    }
+
+    @Setup(Level.Invocation)
+    public void newProblem() {
+        problem = new Problem(Corpus.board(size), Corpus.lengths(size), dictionary);
+        cachedProblem = new Problem(Corpus.board(size), Corpus.lengths(size), dictionary);
+        cachedProblem.setWordlistCache(wordlistCache);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWordlist() {
+        wordlistFile.delete();
+        binaryFile.delete();
+    }
+
+    @Benchmark
+    public List<String> loadTextWordlist() throws IOException {
+        return Dictionary.loadText(wordlistFile);
+    }
+
+    @Benchmark
+    public Dictionary openBinaryWordlist() throws IOException {
+        return Dictionary.open(binaryFile);
+    }
+
+    @Benchmark
+    public int buildProblemWordlist() {
+        return problem.buildProblemWordlist();
+    }
+
+    @Benchmark
+    public int buildProblemAndWordWordlist() {
+        problem.buildProblemWordlist();
+        return problem.buildWordWordlist();
+    }
+
+    @Benchmark
+    public int buildProblemAndWordWordlistCached() {
+        cachedProblem.buildProblemWordlist();
+        return cachedProblem.buildWordWordlist();
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.kingeik.wordbrain.benchmark;
+
+import com.kingeik.wordbrain.engine.Dictionary;
+import com.kingeik.wordbrain.engine.LetterMatrix;
+import com.kingeik.wordbrain.engine.Problem;
+import com.kingeik.wordbrain.engine.Solution;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// the search for the first word of a board and the gravity step after a found word
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    @Param({"10000", "100000"})
+    public int wordCount;
+
+    @Param({"3", "4", "5", "6", "7", "8"})
+    public int size;
+
+    private Dictionary dictionary;
+    private Problem problem;
+    private LetterMatrix board;
+    private Solution firstWord;
+
+    @Setup(Level.Trial)
+    public void findFirstWord() {
+        dictionary = Dictionary.of(Corpus.wordlist(wordCount));
+
+        Problem solved = newProblem();
+        solved.startSolvers();
+        solved.waitForSolvers();
+        board = solved.getMatrix();
+        firstWord = solved.getResultsForWord(0).get(0);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareProblem() {
+        problem = newProblem();
+    }
+
+    private Problem newProblem() {
+        Problem p = new Problem(Corpus.board(size), Corpus.lengths(size), dictionary);
+        p.buildProblemWordlist();
+        p.buildWordWordlist();
+        return p;
+    }
+
+    @Benchmark
+    public int searchFirstWord() {
+        problem.startSolvers();
+        problem.waitForSolvers();
+        return problem.getResultsForWord(0).size();
+    }
+
+    @Benchmark
+    public LetterMatrix gravity() {
+        LetterMatrix matrix = board.getCopy();
+        matrix.gravity(firstWord);
+        return matrix;
+    }
+
+    @Benchmark
+    public LetterMatrix boardAfterWord() {
+        // rebuilds the board from the solution chain, like every solver task for the next word does
+        return new LetterMatrix(firstWord);
+    }
+
+}
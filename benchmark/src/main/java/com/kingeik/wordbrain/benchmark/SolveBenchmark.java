@@ -0,0 +1,97 @@
+package com.kingeik.wordbrain.benchmark;
+
+import com.kingeik.wordbrain.engine.Dictionary;
+import com.kingeik.wordbrain.engine.Problem;
+import com.kingeik.wordbrain.engine.ResultCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// complete solves of all words, word by word like the app does, depth first and depth first until the first solution,
+// and reading a solve from the result cache
+// the big boards take up to a minute per solve on a single core, so every measurement is a single shot
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolveBenchmark {
+
+    @Param({"1000", "10000"})
+    public int wordCount;
+
+    @Param({"3", "4", "5", "6", "7", "8"})
+    public int size;
+
+    private Dictionary dictionary;
+    private ResultCache resultCache;
+    private File resultDir;
+
+    @Setup
+    public void buildWordlist() throws IOException {
+        dictionary = Dictionary.of(Corpus.wordlist(wordCount));
+
+        resultDir = File.createTempFile("results", "");
+        resultDir.delete();
+        resultCache = new ResultCache(dictionary, resultDir, Long.MAX_VALUE);
+        Problem problem = new Problem(Corpus.board(size), Corpus.lengths(size), dictionary);
+        problem.setResultCache(resultCache);
+        problem.solve(null);
+    }
+
+    @TearDown
+    public void deleteResults() {
+        resultCache.clear();
+        resultDir.delete();
+    }
+
+    @Benchmark
+    public int solveWordByWord() {
+        Problem problem = new Problem(Corpus.board(size), Corpus.lengths(size), dictionary);
+        problem.buildProblemWordlist();
+        for (int i = 0; i < problem.getWordCount(); i++) {
+            problem.buildWordWordlist();
+            if (!problem.startSolvers())
+                break;
+            problem.waitForSolvers();
+            if (!problem.isWordSolved(i))
+                break;
+        }
+        return problem.getFinalResults().size();
+    }
+
+    @Benchmark
+    public int solveDepthFirst() {
+        Problem problem = new Problem(Corpus.board(size), Corpus.lengths(size), dictionary);
+        return problem.solve(null).size();
+    }
+
+    @Benchmark
+    public int solveFirstSolution() {
+        Problem problem = new Problem(Corpus.board(size), Corpus.lengths(size), dictionary);
+        return problem.solve(null, 1).size();
+    }
+
+    @Benchmark
+    public int solveCached() {
+        Problem problem = new Problem(Corpus.board(size), Corpus.lengths(size), dictionary);
+        problem.setResultCache(resultCache);
+        return problem.solve(null).size();
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.kingeik.wordbrain.engine;
+
+public class Alphabet {
+
+    public static final String validChars = "abcdefghijklmnopqrstuvwxyzäöüß";
+    public static final char placeholder = '_';
+
+    // letters are mapped to their position in validChars once, the engine works on these codes: they're
+    // small enough for lookup tables and a set of letters fits into an int (1 << code)
+    public static final int SIZE = validChars.length();
+
+    // all valid letters are below 256, so a small table maps them without searching validChars
+    private static final byte[] codes = new byte[256];
+
+    static {
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = -1;
+        }
+        for (int i = 0; i < SIZE; i++) {
+            codes[validChars.charAt(i)] = (byte) i;
+        }
+    }
+
+    private Alphabet() {
+    }
+
+    public static boolean isValid(char c) {
+        return codeOf(c) != -1;
+    }
+
+    // -1 if the letter isn't in the alphabet
+    public static int codeOf(char c) {
+        return c < codes.length ? codes[c] : -1;
+    }
+
+    public static char letterOf(int code) {
+        return validChars.charAt(code);
+    }
+
+}
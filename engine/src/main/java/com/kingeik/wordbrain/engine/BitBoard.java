@@ -0,0 +1,94 @@
+package com.kingeik.wordbrain.engine;
+
+// Board of at most 64 cells as bitmasks, cell index is row * width + col.
+// Finding the next tiles of a word is an AND of the neighbours of the last tile with the cells holding
+// the wanted letter, gravity shifts the masks per removed cell.
+class BitBoard {
+
+    public static final int MAX_CELLS = 64;
+
+    private int width, height;
+    private Neighbours neighbours;
+    private long occupied;
+    private long[] letterMasks;
+
+    private BitBoard(int width, int height, Neighbours neighbours, long occupied, long[] letterMasks) {
+        this.width = width;
+        this.height = height;
+        this.neighbours = neighbours;
+        this.occupied = occupied;
+        this.letterMasks = letterMasks;
+    }
+
+    public static boolean fits(int width, int height) {
+        return width * height <= MAX_CELLS;
+    }
+
+    public static BitBoard of(char[][] letters) {
+        int height = letters.length;
+        int width = letters[0].length;
+        long occupied = 0;
+        long[] letterMasks = new long[Alphabet.SIZE];
+
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                int index = Alphabet.codeOf(letters[row][col]);
+                if (index == -1)
+                    continue;
+                long bit = 1L << (row * width + col);
+                occupied |= bit;
+                letterMasks[index] |= bit;
+            }
+        }
+
+        return new BitBoard(width, height, Neighbours.of(width, height), occupied, letterMasks);
+    }
+
+    public BitBoard getCopy() {
+        // the neighbours only depend on the size and are shared anyway
+        return new BitBoard(width, height, neighbours, occupied, letterMasks.clone());
+    }
+
+    public long getNeighbours(int cell) {
+        return neighbours.getMask(cell);
+    }
+
+    public long getOccupied() {
+        return occupied;
+    }
+
+    public long getLetterMask(int code) {
+        return letterMasks[code];
+    }
+
+    public void gravity(long removed) {
+        // top to bottom: everything above a removed cell in its column moves down one row, the cells
+        // below it aren't touched, so the following removed cells are still where they were
+        while (removed != 0) {
+            int cell = Long.numberOfTrailingZeros(removed);
+            removed &= removed - 1;
+
+            long bit = 1L << cell;
+            long above = columnAbove(cell);
+            occupied = fall(occupied, bit, above);
+            for (int i = 0; i < letterMasks.length; i++) {
+                if (letterMasks[i] != 0)
+                    letterMasks[i] = fall(letterMasks[i], bit, above);
+            }
+        }
+    }
+
+    private long columnAbove(int cell) {
+        long above = 0;
+        for (int c = cell - width; c >= 0; c -= width) {
+            above |= 1L << c;
+        }
+        return above;
+    }
+
+    private long fall(long mask, long removedBit, long above) {
+        mask &= ~removedBit;
+        return (mask & ~above) | ((mask & above) << width);
+    }
+
+}
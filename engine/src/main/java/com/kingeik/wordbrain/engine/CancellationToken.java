@@ -0,0 +1,63 @@
+package com.kingeik.wordbrain.engine;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+// Stops a running solve: the solvers only read a volatile flag on every step, a time budget is enforced
+// by a shared timer thread setting that flag, so the search never has to look at the clock.
+public class CancellationToken {
+
+    private static Timer timer;
+
+    private volatile boolean cancelled;
+    // the pending budget, and whether the search it's for is over already
+    private TimerTask budget;
+    private boolean finished;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // wall clock budget, counted from now, replaces an earlier one; finish() once the search is over
+    public synchronized void cancelAfter(long millis) {
+        if (budget != null)
+            budget.cancel();
+        finished = false;
+        budget = new TimerTask() {
+            @Override
+            public void run() {
+                expire(this);
+            }
+        };
+        getTimer().schedule(budget, millis);
+    }
+
+    private synchronized void expire(TimerTask task) {
+        // a budget running out after the search, or one which was replaced, doesn't cancel anything anymore
+        if (task == budget && !finished)
+            cancelled = true;
+    }
+
+    // the search is over: a pending budget is dropped, so it can't mark a complete search as cancelled later
+    // and the timer doesn't hold on to this token (and the problem using it) until it would have run out
+    public synchronized void finish() {
+        finished = true;
+        if (budget != null) {
+            budget.cancel();
+            budget = null;
+            getTimer().purge();
+        }
+    }
+
+    private static synchronized Timer getTimer() {
+        if (timer == null) {
+            timer = new Timer("solver-budget", true); // must not keep the process alive
+        }
+        return timer;
+    }
+
+}
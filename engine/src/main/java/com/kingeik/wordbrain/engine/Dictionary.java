@@ -0,0 +1,406 @@
+package com.kingeik.wordbrain.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Scanner;
+
+// Binary wordlist, opened memory mapped so words are only turned into strings once they pass a filter.
+//
+// layout (big endian):
+//   int magic, int maxLength, long checksum (see getChecksum())
+//   int count for every length from 0 to maxLength
+//   int letter mask for every word, in the same order as the words: bit c is set if letter c is in it
+//   the words sorted by length, then alphabetically, one byte per letter (its code from Alphabet)
+// all words of one length have the same size, so word i of length l is at offsets[l] + i * l
+//
+// words are passed around as ids, their position in the file: the ones of length l start at getFirstId(l)
+// files from before the checksum ("WBD2") and before the letter masks ("WBD1") are still read, what's missing is
+// worked out when opening them or on first use; upgrade() rewrites them once so that only happens on the first
+// start
+public class Dictionary {
+
+    private static final int MAGIC = 0x57424433; // "WBD3"
+    private static final int MAGIC_WITHOUT_CHECKSUM = 0x57424432; // "WBD2"
+    private static final int MAGIC_WITHOUT_MASKS = 0x57424431; // "WBD1"
+
+    private ByteBuffer data;
+    private int[] counts;
+    private int[] offsets;
+    private int[] firstIds;
+    private int[] masks;
+    private int size;
+    private long checksum;
+    private boolean hasChecksum;
+
+    private Dictionary(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.limit() < 8 || !isMagic(data.getInt(0)))
+            throw new IOException("Not a binary wordlist");
+        int magic = data.getInt(0);
+        boolean hasMasks = magic != MAGIC_WITHOUT_MASKS;
+
+        int maxLength = data.getInt(4);
+        int countsOffset = (magic == MAGIC) ? 16 : 8;
+        if (maxLength < 0 || countsOffset + 4L * (maxLength + 1) > data.limit())
+            throw new IOException("Binary wordlist is truncated");
+        int masksOffset = countsOffset + 4 * (maxLength + 1);
+        if (magic == MAGIC) {
+            checksum = data.getLong(8);
+            hasChecksum = true;
+        }
+
+        counts = new int[maxLength + 1];
+        offsets = new int[maxLength + 1];
+        firstIds = new int[maxLength + 1];
+        size = 0;
+        for (int l = 0; l <= maxLength; l++) {
+            counts[l] = data.getInt(countsOffset + 4 * l);
+            firstIds[l] = size;
+            size += counts[l];
+        }
+        int offset = hasMasks ? masksOffset + 4 * size : masksOffset;
+        for (int l = 0; l <= maxLength; l++) {
+            offsets[l] = offset;
+            offset += counts[l] * l;
+        }
+        if (offset > data.limit())
+            throw new IOException("Binary wordlist is truncated");
+
+        masks = new int[size];
+        if (hasMasks) {
+            // one bulk copy, the filter reads them for every word
+            ByteBuffer view = data.duplicate();
+            view.position(masksOffset);
+            view.asIntBuffer().get(masks);
+        } else {
+            for (int id = 0; id < size; id++) {
+                int length = getLength(id);
+                int start = offsetOf(id, length);
+                for (int i = 0; i < length; i++) {
+                    masks[id] |= 1 << data.get(start + i);
+                }
+            }
+        }
+    }
+
+    private static boolean isMagic(int magic) {
+        return magic == MAGIC || magic == MAGIC_WITHOUT_CHECKSUM || magic == MAGIC_WITHOUT_MASKS;
+    }
+
+    public static Dictionary open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // the mapping stays valid after the file is closed
+            return new Dictionary(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    // in memory dictionary with the same layout, for wordlists which don't come from a file
+    public static Dictionary of(List<String> words) {
+        try {
+            return new Dictionary(ByteBuffer.wrap(encode(words)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static boolean isBinary(File file) throws IOException {
+        return isMagic(readMagic(file));
+    }
+
+    private static int readMagic(File file) throws IOException {
+        if (file.length() < 8)
+            return 0;
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            return in.readInt();
+        } finally {
+            in.close();
+        }
+    }
+
+    // rewrites a file in an older format in the current one, returns false if it didn't need that
+    public static boolean upgrade(File file) throws IOException {
+        int magic = readMagic(file);
+        if (magic != MAGIC_WITHOUT_CHECKSUM && magic != MAGIC_WITHOUT_MASKS)
+            return false;
+
+        // the words stay as they are, only the checksum and the masks built when opening it are put in front
+        Dictionary old = open(file);
+        ByteBuffer letters = old.data.duplicate();
+        letters.limit(old.getLettersEnd());
+        letters.position(old.offsets[0]);
+
+        ByteBuffer buffer = ByteBuffer.allocate(16 + 4 * old.counts.length + 4 * old.size + letters.remaining());
+        buffer.putInt(MAGIC);
+        buffer.putInt(old.getMaxLength());
+        buffer.putLong(old.getChecksum());
+        for (int count : old.counts) {
+            buffer.putInt(count);
+        }
+        for (int mask : old.masks) {
+            buffer.putInt(mask);
+        }
+        buffer.put(letters);
+
+        writeReplacing(buffer.array(), buffer.position(), file);
+        return true;
+    }
+
+    // moves a completely written file over the target, which stays untouched if anything before failed
+    static void replace(File temp, File target) throws IOException {
+        if (!temp.renameTo(target)) {
+            target.delete();
+            if (!temp.renameTo(target))
+                throw new IOException("Could not replace " + target);
+        }
+    }
+
+    // an existing file is only replaced once the new one is written completely
+    public static void write(List<String> words, File file) throws IOException {
+        byte[] bytes = encode(words);
+        writeReplacing(bytes, bytes.length, file);
+    }
+
+    // written next to the file and moved over it, a dictionary file which exists is always complete
+    private static void writeReplacing(byte[] bytes, int length, File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(temp, false);
+        try {
+            out.write(bytes, 0, length);
+        } finally {
+            out.close();
+        }
+        replace(temp, file);
+    }
+
+    // sorts and deduplicates, words with letters outside the alphabet are dropped
+    private static byte[] encode(List<String> words) {
+        List<String> sorted = new ArrayList<>(words.size());
+        int maxLength = 0;
+        for (String word : words) {
+            boolean valid = word.length() > 0;
+            for (int i = 0; i < word.length() && valid; i++) {
+                valid = Alphabet.isValid(word.charAt(i));
+            }
+            if (valid) {
+                sorted.add(word);
+                maxLength = Math.max(maxLength, word.length());
+            }
+        }
+        Collections.sort(sorted, new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                if (a.length() != b.length())
+                    return a.length() - b.length();
+                return a.compareTo(b);
+            }
+        });
+
+        int[] counts = new int[maxLength + 1];
+        int wordCount = 0;
+        int letters = 0;
+        String last = null;
+        for (String word : sorted) {
+            if (word.equals(last))
+                continue;
+            counts[word.length()]++;
+            wordCount++;
+            letters += word.length();
+            last = word;
+        }
+
+        int countsOffset = 16;
+        int lettersOffset = countsOffset + 4 * (maxLength + 1) + 4 * wordCount;
+        ByteBuffer buffer = ByteBuffer.allocate(lettersOffset + letters);
+        buffer.putInt(MAGIC);
+        buffer.putInt(maxLength);
+        buffer.putLong(0); // once the words are in
+        for (int count : counts) {
+            buffer.putInt(count);
+        }
+        last = null;
+        for (String word : sorted) {
+            if (word.equals(last))
+                continue;
+            buffer.putInt(maskOf(word));
+            last = word;
+        }
+        last = null;
+        for (String word : sorted) {
+            if (word.equals(last))
+                continue;
+            for (int i = 0; i < word.length(); i++) {
+                buffer.put((byte) Alphabet.codeOf(word.charAt(i)));
+            }
+            last = word;
+        }
+        buffer.putLong(8, checksumOf(buffer, countsOffset, lettersOffset, buffer.limit()));
+        return buffer.array();
+    }
+
+    // bit c is set if the word contains the letter with code c, Alphabet.SIZE fits an int
+    public static int maskOf(String word) {
+        int mask = 0;
+        for (int i = 0; i < word.length(); i++) {
+            mask |= 1 << Alphabet.codeOf(word.charAt(i));
+        }
+        return mask;
+    }
+
+    // reads a wordlist with one word per line
+    public static List<String> loadText(File file) throws IOException {
+        List<String> words = new ArrayList<>();
+        Scanner sc = new Scanner(file, "UTF-8");
+        try {
+            while (sc.hasNextLine()) {
+                String line = sc.nextLine();
+                words.add(line.trim());
+            }
+            if (sc.ioException() != null)
+                throw sc.ioException();
+        } finally {
+            sc.close();
+        }
+        return words;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // tells apart wordlists whose results must not be mixed up; stored in the file, so opening it doesn't read
+    // all words, only files in an older format work it out on first use
+    public synchronized long getChecksum() {
+        if (!hasChecksum) {
+            int countsOffset = (data.getInt(0) == MAGIC) ? 16 : 8;
+            checksum = checksumOf(data, countsOffset, offsets[0], getLettersEnd());
+            hasChecksum = true;
+        }
+        return checksum;
+    }
+
+    // over the counts and the letters, which make up the wordlist: the same for it in every format
+    private static long checksumOf(ByteBuffer data, int countsOffset, int lettersOffset, int lettersEnd) {
+        long hash = 1125899906842597L;
+        int countsEnd = countsOffset + 4 * (data.getInt(4) + 1);
+        for (int i = countsOffset; i < countsEnd; i++) {
+            hash = 31 * hash + data.get(i);
+        }
+        for (int i = lettersOffset; i < lettersEnd; i++) {
+            hash = 31 * hash + data.get(i);
+        }
+        return hash;
+    }
+
+    private int getLettersEnd() {
+        int maxLength = getMaxLength();
+        return offsets[maxLength] + counts[maxLength] * maxLength;
+    }
+
+    public int getMaxLength() {
+        return counts.length - 1;
+    }
+
+    public int getWordCount(int length) {
+        if (length < 0 || length >= counts.length)
+            return 0;
+        return counts[length];
+    }
+
+    public int getFirstId(int length) {
+        if (length < 0)
+            return 0;
+        if (length >= firstIds.length)
+            return size;
+        return firstIds[length];
+    }
+
+    public int getLength(int id) {
+        // the last length starting at or before id, there are only a few dozen
+        int low = 0;
+        int high = firstIds.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (firstIds[mid] <= id)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    private int offsetOf(int id, int length) {
+        return offsets[length] + (id - firstIds[length]) * length;
+    }
+
+    public String getWord(int id) {
+        char[] word = new char[getLength(id)];
+        getLetters(id, word);
+        return new String(word);
+    }
+
+    // writes the letters of the word to the start of letters, which has to be big enough, returns the length
+    public int getLetters(int id, char[] letters) {
+        int length = getLength(id);
+        int offset = offsetOf(id, length);
+        for (int i = 0; i < length; i++) {
+            letters[i] = Alphabet.letterOf(data.get(offset + i));
+        }
+        return length;
+    }
+
+    // same with the letter codes
+    public int getCodes(int id, byte[] codes) {
+        int length = getLength(id);
+        int offset = offsetOf(id, length);
+        for (int i = 0; i < length; i++) {
+            codes[i] = data.get(offset + i);
+        }
+        return length;
+    }
+
+    // adds the letter counts of the word to counts, starting at index from
+    public void addLetterCounts(int id, byte[] counts, int from) {
+        int length = getLength(id);
+        int offset = offsetOf(id, length);
+        for (int i = 0; i < length; i++) {
+            counts[from + data.get(offset + i)]++;
+        }
+    }
+
+    // the letters of the word as a set, see maskOf()
+    public int getLetterMask(int id) {
+        return masks[id];
+    }
+
+    // same as LetterCounts.fits(), but straight on the encoded letters
+    public boolean fits(int id, int[] available, int[] scratch) {
+        for (int i = 0; i < scratch.length; i++) {
+            scratch[i] = 0;
+        }
+        int length = getLength(id);
+        int offset = offsetOf(id, length);
+        for (int i = 0; i < length; i++) {
+            int code = data.get(offset + i);
+            if (++scratch[code] > available[code])
+                return false;
+        }
+        return true;
+    }
+
+}
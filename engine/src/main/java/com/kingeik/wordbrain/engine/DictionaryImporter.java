@@ -0,0 +1,182 @@
+package com.kingeik.wordbrain.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Imports dict.cc exports: the file is read in big chunks cut at line ends, the chunks are parsed on all
+// cores straight from the UTF-8 bytes and the words are deduplicated in a hash set, so the input doesn't
+// need to be sorted.
+public class DictionaryImporter {
+
+    public interface ProgressListener {
+        // called on the importing thread after every chunk
+        void onProgress(long bytesRead, int wordCount);
+    }
+
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    private DictionaryImporter() {
+    }
+
+    // returns the number of distinct words written to target
+    public static int importDictCc(InputStream in, File target, ProgressListener listener) throws IOException {
+        return importDictCc(in, target, listener, CHUNK_SIZE);
+    }
+
+    // tests cut the input at many more places with small chunks
+    static int importDictCc(InputStream in, File target, ProgressListener listener, int chunkSize)
+            throws IOException {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Set<String> words = new HashSet<>();
+        long bytesRead = 0;
+
+        try {
+            // only a few chunks are kept in memory at once, the oldest is merged before the next one is read
+            LinkedList<Future<List<String>>> pending = new LinkedList<>();
+            byte[] carry = new byte[0];
+            boolean done = false;
+
+            while (!done) {
+                byte[] chunk = new byte[Math.max(chunkSize, carry.length * 2)];
+                System.arraycopy(carry, 0, chunk, 0, carry.length);
+                int filled = carry.length;
+
+                int read = 0;
+                while (filled < chunk.length && (read = in.read(chunk, filled, chunk.length - filled)) != -1) {
+                    filled += read;
+                    bytesRead += read;
+                }
+                done = (read == -1);
+
+                int end = filled;
+                if (!done) {
+                    // cut after the last complete line, the rest goes into the next chunk
+                    while (end > 0 && chunk[end - 1] != '\n') {
+                        end--;
+                    }
+                    if (end == 0) {
+                        carry = chunk; // line longer than the chunk, read on with a bigger one
+                        continue;
+                    }
+                }
+                carry = new byte[filled - end];
+                System.arraycopy(chunk, end, carry, 0, carry.length);
+
+                final byte[] bytes = chunk;
+                final int length = end;
+                pending.add(pool.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() {
+                        return parseChunk(bytes, length);
+                    }
+                }));
+
+                while (pending.size() > threads * 2 || (done && !pending.isEmpty())) {
+                    words.addAll(pending.removeFirst().get());
+                    if (listener != null)
+                        listener.onProgress(bytesRead, words.size());
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new IOException("Import was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not parse wordlist", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // a failed import doesn't destroy the old wordlist, write() only replaces it once the new one is complete
+        Dictionary.write(new ArrayList<>(words), target);
+
+        return words.size();
+    }
+
+    // every line gives the first word of its first column if all of its letters are in the alphabet
+    static List<String> parseChunk(byte[] bytes, int length) {
+        List<String> words = new ArrayList<>();
+        char[] word = new char[64];
+        int pos = 0;
+
+        while (pos < length) {
+            int lineEnd = pos;
+            while (lineEnd < length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+
+            int i = pos;
+            while (i < lineEnd && (bytes[i] & 0xff) <= ' ') {
+                i++;
+            }
+
+            if (i < lineEnd && bytes[i] != '#') {
+                int wordLength = 0;
+                boolean valid = true;
+                while (i < lineEnd && valid) {
+                    int b = bytes[i] & 0xff;
+                    if (b == '\t' || b == ' ' || b == '\r')
+                        break;
+
+                    char c;
+                    if (b >= 'a' && b <= 'z') {
+                        c = (char) b;
+                    } else if (b >= 'A' && b <= 'Z') {
+                        c = (char) (b - 'A' + 'a');
+                    } else if (b == 0xc3 && i + 1 < lineEnd) {
+                        c = umlaut(bytes[++i] & 0xff);
+                        valid = (c != 0);
+                    } else {
+                        valid = false;
+                        c = 0;
+                    }
+
+                    if (wordLength == word.length) {
+                        char[] bigger = new char[word.length * 2];
+                        System.arraycopy(word, 0, bigger, 0, wordLength);
+                        word = bigger;
+                    }
+                    word[wordLength++] = c;
+                    i++;
+                }
+
+                if (valid && wordLength > 0)
+                    words.add(new String(word, 0, wordLength));
+            }
+
+            pos = lineEnd + 1;
+        }
+
+        return words;
+    }
+
+    // second byte of the two byte UTF-8 sequences starting with 0xc3, lower cased, 0 if not in the alphabet
+    private static char umlaut(int b) {
+        switch (b) {
+            case 0xa4:
+            case 0x84:
+                return 'ä';
+            case 0xb6:
+            case 0x96:
+                return 'ö';
+            case 0xbc:
+            case 0x9c:
+                return 'ü';
+            case 0x9f:
+                return 'ß';
+            default:
+                return 0;
+        }
+    }
+
+}
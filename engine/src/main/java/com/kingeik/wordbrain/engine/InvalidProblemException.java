@@ -0,0 +1,26 @@
+package com.kingeik.wordbrain.engine;
+
+// thrown for problems which can't be solved as entered, the reason lets the caller show a fitting message
+public class InvalidProblemException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason {
+        INCONSISTENT_LINE_LENGTH,
+        INVALID_CHARS,
+        CHARS_MISMATCH,
+        INVALID_LENGTH
+    }
+
+    private final Reason reason;
+
+    public InvalidProblemException(Reason reason) {
+        super(reason.name());
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.kingeik.wordbrain.engine;
+
+// letter multisets as count vectors, indexed by the letter codes from Alphabet
+class LetterCounts {
+
+    public static final int ALPHABET_SIZE = Alphabet.SIZE;
+
+    public static int indexOf(char c) {
+        return Alphabet.codeOf(c);
+    }
+
+    // returns null if the word contains letters outside the alphabet
+    public static byte[] of(String word) {
+        byte[] counts = new byte[ALPHABET_SIZE];
+        for (int i = 0; i < word.length(); i++) {
+            int index = indexOf(word.charAt(i));
+            if (index == -1)
+                return null;
+            counts[index]++;
+        }
+        return counts;
+    }
+
+    public static boolean fits(String word, int[] available, int[] scratch) {
+        for (int i = 0; i < ALPHABET_SIZE; i++) {
+            scratch[i] = 0;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            int index = indexOf(word.charAt(i));
+            if (index == -1 || ++scratch[index] > available[index])
+                return false;
+        }
+        return true;
+    }
+
+    public static boolean fits(byte[] needed, int[] available) {
+        return fits(needed, 0, available);
+    }
+
+    // for many count vectors packed into one array, ALPHABET_SIZE entries each
+    public static boolean fits(byte[] needed, int from, int[] available) {
+        for (int i = 0; i < ALPHABET_SIZE; i++) {
+            if (needed[from + i] > available[i])
+                return false;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,392 @@
+package com.kingeik.wordbrain.engine;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LetterMatrix {
+
+    private char[][] originalMatrix;
+    private List<Solution> foundSolutions;
+    // all solutions which leave exactly this board behind (null if there is only the one in foundSolutions)
+    private List<Solution> sameBoardSolutions;
+
+    // set of the letters on the board, bit (1 << code) for every letter code
+    private int letterMask;
+    private char[][] letters;
+    private int width, heigth;
+    private int[][] inSolutionIndex;
+    private int currentSolutionIndex;
+    // tiles of the current solution in order, so the end of the path is known without scanning the grid
+    private int[] pathRows, pathCols;
+    private char[] pathLetters;
+    // the same board as bitmasks if it has at most 64 cells, null otherwise
+    private BitBoard bits;
+    private long usedCells;
+    // user feedback this board was last checked against, see Problem.isPruned()
+    private int feedbackVersion;
+    // same as in Solution: invalidation count isBasedOnInvalid() was worked out for and the result
+    private long invalidChecked = -2; // not worked out yet
+
+    public LetterMatrix(String problem) {
+        String[] lines = problem.toLowerCase().split("\n");
+
+        width = lines[0].length();
+        heigth = lines.length;
+
+        letters = new char[heigth][width];
+        resetSolution();
+
+        int lineNumber = 0;
+        for (String line : lines) {
+            if (line.length() != width) {
+                throw new InvalidProblemException(InvalidProblemException.Reason.INCONSISTENT_LINE_LENGTH);
+            }
+            letters[lineNumber] = line.toCharArray();
+            lineNumber++;
+        }
+        if (BitBoard.fits(width, heigth))
+            bits = BitBoard.of(letters);
+
+        letterMask = 0;
+        for (char letter : problem.replaceAll("\n", "").toCharArray()) {
+            int code = Alphabet.codeOf(letter);
+            if (code == -1) {
+                throw new InvalidProblemException(InvalidProblemException.Reason.INVALID_CHARS);
+            }
+            letterMask |= 1 << code;
+        }
+
+        this.originalMatrix = new char[heigth][width];
+        int row = 0;
+        for (char[] line : this.letters) {
+            int col = 0;
+            for (char c : line) {
+                this.originalMatrix[row][col] = c;
+                col++;
+            }
+            row++;
+        }
+
+        this.foundSolutions = new ArrayList<>();
+    }
+
+    // copy constructor
+    private LetterMatrix(char[][] letters, BitBoard bits, char[][] originalMatrix, List<Solution> foundSolutions, List<Solution> sameBoardSolutions) {
+        width = letters[0].length;
+        heigth = letters.length;
+        this.letters = new char[heigth][width];
+        resetSolution();
+        int row = 0;
+        for (char[] line : letters) {
+            System.arraycopy(line, 0, this.letters[row], 0, width);
+            row++;
+        }
+        letterMask = maskOf(this.letters);
+
+        this.bits = bits == null ? null : bits.getCopy();
+        this.originalMatrix = originalMatrix; // should work cause it's never going to be modified (shallow copy)
+
+        this.foundSolutions = new ArrayList<>(foundSolutions);
+        this.sameBoardSolutions = sameBoardSolutions; // never modified after creation, can be shared
+    }
+
+    public LetterMatrix(Solution solution) {
+        char[][] lettersBeforeSolution = solution.getLettersBeforeSolution();
+        width = solution.getWidth();
+        heigth = solution.getHeight();
+        this.letters = lettersBeforeSolution; // freshly rebuilt for us, no need to copy again
+        resetSolution();
+        letterMask = maskOf(lettersBeforeSolution);
+
+        this.originalMatrix = solution.getRootLetters(); // should work cause it's never going to be modified (shallow copy)
+        if (BitBoard.fits(width, heigth))
+            bits = BitBoard.of(lettersBeforeSolution); // the gravity below is applied to both
+
+        this.foundSolutions = new ArrayList<>();
+
+        this.gravity(solution);
+    }
+
+    public void resetSolution() {
+        currentSolutionIndex = 0;
+        usedCells = 0;
+        inSolutionIndex = new int[heigth][width];
+        pathRows = new int[heigth * width];
+        pathCols = new int[heigth * width];
+        pathLetters = new char[heigth * width];
+
+        for (int i = 0; i < heigth; i++) {
+            for (int j = 0; j < width; j++) {
+                inSolutionIndex[i][j] = -1;
+            }
+        }
+    }
+
+    public boolean canUseForSolution(int row, int col) {
+        return row >= 0 && row < heigth && col >= 0 && col < width && inSolutionIndex[row][col] == -1;
+    }
+
+    public boolean addSolutionLetter(int row, int col) {
+        if (canUseForSolution(row, col)) {
+            inSolutionIndex[row][col] = currentSolutionIndex;
+            pathRows[currentSolutionIndex] = row;
+            pathCols[currentSolutionIndex] = col;
+            pathLetters[currentSolutionIndex] = letters[row][col];
+            currentSolutionIndex++;
+            if (bits != null)
+                usedCells |= 1L << (row * width + col);
+            return true;
+        }
+        return false;
+    }
+
+    public int removeLastSolutionLetter() {
+        if (currentSolutionIndex == 0)
+            return -1;
+        currentSolutionIndex--;
+        inSolutionIndex[pathRows[currentSolutionIndex]][pathCols[currentSolutionIndex]] = -1;
+        if (bits != null)
+            usedCells &= ~(1L << (pathRows[currentSolutionIndex] * width + pathCols[currentSolutionIndex]));
+        return currentSolutionIndex;
+    }
+
+    public int getCurrentSolutionEndRow() {
+        if (currentSolutionIndex == 0)
+            return -1;
+        return pathRows[currentSolutionIndex - 1];
+    }
+
+    public int getCurrentSolutionEndCol() {
+        if (currentSolutionIndex == 0)
+            return -1;
+        return pathCols[currentSolutionIndex - 1];
+    }
+
+    public BitBoard getBitBoard() {
+        return bits;
+    }
+
+    // cells of the current solution, only kept up to date if there is a bit board
+    public long getUsedCells() {
+        return usedCells;
+    }
+
+    public char getLetterAt(int row, int col) {
+        if (row >= 0 && row < heigth && col >= 0 && col < width)
+            return letters[row][col];
+        return ' ';
+    }
+
+    public Solution getCurrentSolution() {
+        Solution previous = null;
+        if (foundSolutions.size() > 0) {
+            previous = foundSolutions.get(foundSolutions.size() - 1);
+        }
+        short[] path = new short[currentSolutionIndex];
+        for (int i = 0; i < currentSolutionIndex; i++) {
+            path[i] = (short) (pathRows[i] * width + pathCols[i]);
+        }
+        return new Solution(this.getCurrentSolutionWord(), path, originalMatrix, previous);
+    }
+
+    public List<Solution> getCurrentSolutions() {
+        List<Solution> solutions = new ArrayList<>();
+        if (sameBoardSolutions == null) {
+            solutions.add(getCurrentSolution());
+            return solutions;
+        }
+
+        Solution first = getCurrentSolution();
+        solutions.add(first);
+        for (int i = 1; i < sameBoardSolutions.size(); i++) {
+            Solution previous = sameBoardSolutions.get(i);
+            if (!previous.isInvalid()) {
+                solutions.add(new Solution(first.foundWord, first.getPath(), originalMatrix, previous));
+            }
+        }
+        if (first.isInvalid()) {
+            solutions.remove(0);
+        }
+        return solutions;
+    }
+
+    // only used while grouping solutions before any solver works on this matrix
+    public void addSameBoardSolution(Solution solution) {
+        if (sameBoardSolutions == null) {
+            sameBoardSolutions = new ArrayList<>();
+            sameBoardSolutions.add(foundSolutions.get(foundSolutions.size() - 1));
+        }
+        sameBoardSolutions.add(solution);
+    }
+
+    // the solutions leaving this board behind
+    public List<Solution> getBaseSolutions() {
+        if (sameBoardSolutions != null)
+            return sameBoardSolutions;
+        if (foundSolutions.isEmpty())
+            return foundSolutions;
+        return foundSolutions.subList(foundSolutions.size() - 1, foundSolutions.size());
+    }
+
+    public int getFeedbackVersion() {
+        return feedbackVersion;
+    }
+
+    public void setFeedbackVersion(int feedbackVersion) {
+        this.feedbackVersion = feedbackVersion;
+    }
+
+    public String getBoardKey() {
+        StringBuilder key = new StringBuilder(heigth * width);
+        for (char[] line : letters) {
+            key.append(line);
+        }
+        return key.toString();
+    }
+
+    public String getCurrentSolutionWord() {
+        return new String(pathLetters, 0, currentSolutionIndex);
+    }
+
+    public int getCurrentSolutionLength() {
+        return currentSolutionIndex;
+    }
+
+    public void gravity() {
+        this.gravity(this.getCurrentSolution());
+    }
+
+    public void gravity(Solution solution) {
+        this.foundSolutions.add(solution);
+        applyGravity(this.letters, solution.getPath());
+        if (bits != null) {
+            long removed = 0;
+            for (short cell : solution.getPath()) {
+                removed |= 1L << cell;
+            }
+            bits.gravity(removed);
+        }
+        resetSolution();
+    }
+
+    static void applyGravity(char[][] letters, short[] path) {
+        int heigth = letters.length;
+        int width = letters[0].length;
+
+        for (short cell : path) {
+            letters[cell / width][cell % width] = ' ';
+        }
+
+        for (int col = 0; col < width; col++) {
+            for (int row = heigth - 2; row >= 0; row--) {
+                if (letters[row][col] == ' ')
+                    continue;
+                int i = 0;
+                while (row + i + 1 < heigth && letters[row + i + 1][col] == ' ') {
+                    i++;
+                }
+                if (i != 0) {
+                    letters[row + i][col] = letters[row][col];
+                    letters[row][col] = ' ';
+                }
+            }
+        }
+    }
+
+    public LetterMatrix getCopy() {
+        return new LetterMatrix(letters, bits, originalMatrix, foundSolutions, sameBoardSolutions);
+    }
+
+    // the board of the problem before any word was removed
+    char[][] getRootLetters() {
+        return originalMatrix;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeigth() {
+        return heigth;
+    }
+
+    public int getTotalChars() {
+        return width * heigth;
+    }
+
+    public int[] getLetterCounts() {
+        int[] counts = new int[LetterCounts.ALPHABET_SIZE];
+        for (char[] line : letters) {
+            for (char c : line) {
+                int index = LetterCounts.indexOf(c);
+                if (index != -1)
+                    counts[index]++;
+            }
+        }
+        return counts;
+    }
+
+    // letters which are neither used by earlier words nor by the current solution
+    public int[] getRemainingLetterCounts() {
+        int[] counts = getLetterCounts();
+        for (int i = 0; i < currentSolutionIndex; i++) {
+            int index = LetterCounts.indexOf(pathLetters[i]);
+            if (index != -1)
+                counts[index]--;
+        }
+        return counts;
+    }
+
+    private static int maskOf(char[][] letters) {
+        int mask = 0;
+        for (char[] line : letters) {
+            for (char c : line) {
+                int code = Alphabet.codeOf(c);
+                if (code != -1)
+                    mask |= 1 << code;
+            }
+        }
+        return mask;
+    }
+
+    public boolean contains(char c) {
+        int code = Alphabet.codeOf(c);
+        return code != -1 && (letterMask & (1 << code)) != 0;
+    }
+
+    public int getLetterMask() {
+        return letterMask;
+    }
+
+    public int getUniqueCharacterCount() {
+        return Integer.bitCount(letterMask);
+    }
+
+    // called at every recursion step: as long as nothing was invalidated since the last call this is a
+    // single volatile read, the matrices are never shared between solver threads
+    public boolean isBasedOnInvalid() {
+        int count = Solution.getInvalidationCount();
+        if ((invalidChecked & 1) != 0 || (invalidChecked >> 1) == count)
+            return (invalidChecked & 1) != 0;
+
+        boolean invalid = checkBasedOnInvalid();
+        invalidChecked = ((long) count << 1) | (invalid ? 1 : 0);
+        return invalid;
+    }
+
+    private boolean checkBasedOnInvalid() {
+        // every found solution is the previous one of the next, so the last one covers all of them
+        if (foundSolutions.isEmpty() || !foundSolutions.get(foundSolutions.size() - 1).isInvalid())
+            return false;
+        if (sameBoardSolutions == null)
+            return true;
+
+        // the board is still needed as long as one of the solutions leading to it is valid
+        for (int i = 0; i < sameBoardSolutions.size(); i++)
+            if (!sameBoardSolutions.get(i).isInvalid())
+                return false;
+        return true;
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.kingeik.wordbrain.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Adjacent cells for one board size, cell index is row * width + col.
+// Built once per size and shared by all solver tasks, so the search only visits neighbours which exist
+// instead of bounds checking all eight directions on every step.
+// The neighbours of cell i are getCell(getStart(i)) until getCell(getEnd(i) - 1).
+class Neighbours {
+
+    private static final Map<String, Neighbours> bySize = new HashMap<>();
+
+    private int width, height;
+    private int[] offsets;
+    private int[] cells;
+    // same as bitmasks, only for boards which fit a BitBoard
+    private long[] masks;
+
+    private Neighbours(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int total = width * height;
+
+        offsets = new int[total + 1];
+        int[] table = new int[total * 8];
+        int count = 0;
+        for (int cell = 0; cell < total; cell++) {
+            offsets[cell] = count;
+            int row = cell / width;
+            int col = cell % width;
+            for (int other = 0; other < total; other++) {
+                if (isAdjacent(row, col, other / width, other % width))
+                    table[count++] = other;
+            }
+        }
+        offsets[total] = count;
+        cells = new int[count];
+        System.arraycopy(table, 0, cells, 0, count);
+
+        if (BitBoard.fits(width, height)) {
+            masks = new long[total];
+            for (int cell = 0; cell < total; cell++) {
+                for (int i = offsets[cell]; i < offsets[cell + 1]; i++) {
+                    masks[cell] |= 1L << cells[i];
+                }
+            }
+        }
+    }
+
+    public static synchronized Neighbours of(int width, int height) {
+        String key = width + "x" + height;
+        Neighbours neighbours = bySize.get(key);
+        if (neighbours == null) {
+            neighbours = new Neighbours(width, height);
+            bySize.put(key, neighbours);
+        }
+        return neighbours;
+    }
+
+    // the adjacency rule of the game: all eight surrounding tiles
+    private static boolean isAdjacent(int row, int col, int otherRow, int otherCol) {
+        int deltaRow = Math.abs(row - otherRow);
+        int deltaCol = Math.abs(col - otherCol);
+        return deltaRow <= 1 && deltaCol <= 1 && (deltaRow != 0 || deltaCol != 0);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getStart(int cell) {
+        return offsets[cell];
+    }
+
+    public int getEnd(int cell) {
+        return offsets[cell + 1];
+    }
+
+    public int getCell(int i) {
+        return cells[i];
+    }
+
+    public long getMask(int cell) {
+        return masks[cell];
+    }
+
+}
@@ -0,0 +1,816 @@
+package com.kingeik.wordbrain.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class Problem {
+
+    public interface SolutionListener {
+        // called from the solver threads for every solution covering all words
+        void onSolutionFound(Solution solution);
+    }
+
+    private static final Logger log = Logger.getLogger(Problem.class.getName());
+
+    private Dictionary dictionary;
+
+    private LetterMatrix matrix;
+    private Neighbours neighbours;
+    private Word[] words;
+
+    private int minWordLength, maxWordLength;
+    private List<Integer> lengths;
+    private boolean isSolved;
+
+    // dictionary ids of the words which fit the board, by word length (null for lengths not needed)
+    private int[][] problemWordlist;
+    // their letter counts in the same order, ALPHABET_SIZE entries per word, used to drop branches which can't be finished
+    private byte[][] countsByLength;
+    private WordTrie[] wordIndices;
+    // filtered wordlists of earlier problems, only used if it belongs to the same dictionary
+    private WordlistCache wordlistCache;
+    // complete results of earlier solves, same as above
+    private ResultCache resultCache;
+    // getResultKey() when the search started, results are only stored if the problem is still the same
+    private String resultKey;
+
+    // one pool sized to the cores is shared by all problems, solver tasks are queued instead of getting a thread each
+    private static final int SOLVER_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private static ExecutorService solverPool;
+
+    private CountDownLatch solvers;
+    // depth first only: stop once this many complete solutions were found, 0 for all of them
+    private int maxSolutions;
+    private AtomicInteger completeSolutions;
+    private volatile boolean stopped;
+    private CancellationToken cancellation = new CancellationToken();
+    private ResultIndex resultIndex;
+    // bumped whenever the user accepts or rejects a word, running solvers check their boards again when it changes
+    private volatile int feedbackVersion;
+
+    public Problem(String problem, String lengths, Dictionary dictionary) {
+        this.dictionary = dictionary;
+
+        matrix = new LetterMatrix(problem);
+        neighbours = Neighbours.of(matrix.getWidth(), matrix.getHeigth());
+
+        String[] wordsString = lengths.toLowerCase().split(",");
+        words = new Word[wordsString.length];
+
+        int wordNumber = 0;
+        int chars = 0;
+        minWordLength = matrix.getTotalChars();
+        maxWordLength = 0;
+        this.lengths = new ArrayList<>(words.length);
+        isSolved = true;
+        for (String word : wordsString) {
+            words[wordNumber] = new Word(this, word);
+            int l = words[wordNumber].length();
+            if (!words[wordNumber].isSolved()) {
+                isSolved = false;
+                if (!this.lengths.contains(l))
+                    this.lengths.add(l);
+                if (l < minWordLength)
+                    minWordLength = l;
+                if (l > maxWordLength)
+                    maxWordLength = l;
+            }
+            chars += l;
+            wordNumber++;
+        }
+
+        if (isSolved) {
+            minWordLength = 0;
+            maxWordLength = 0;
+        }
+
+        if (chars != matrix.getTotalChars()) {
+            throw new InvalidProblemException(InvalidProblemException.Reason.CHARS_MISMATCH);
+        }
+    }
+
+    public LetterMatrix getMatrix() {
+        return matrix;
+    }
+
+    public int getWordCount() {
+        return words.length;
+    }
+
+    public int getSolvedWordCount() {
+        int lastDoneWord = -1;
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i].isSolved()) {
+                lastDoneWord = i;
+                break;
+            }
+        }
+        return ++lastDoneWord;
+    }
+
+    public boolean isWordSolved(int index) {
+        return index >= 0 && index < words.length && words[index].isSolved();
+    }
+
+    public List<Solution> getFinalResults() {
+        return words[words.length - 1].getPossibleSolutions();
+    }
+
+    // safe to call while solvers are still adding results
+    public List<Solution> copyFinalResults() {
+        return words[words.length - 1].copyPossibleSolutions();
+    }
+
+    public List<Solution> getLatestResults() {
+        int lastDoneWord = -1;
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i].isSolved()) {
+                lastDoneWord = i;
+                break;
+            }
+        }
+        return getResultsForWord(lastDoneWord);
+    }
+
+    public List<Solution> getResultsForWord(int index) {
+        if (index >= 0 && index < words.length) {
+            return words[index].getPossibleSolutions();
+        }
+        return null;
+    }
+
+    // board and words with their hints: problems with the same key have the same results
+    public String getResultKey() {
+        StringBuilder key = new StringBuilder();
+        for (char[] line : matrix.getRootLetters()) {
+            key.append(line).append('\n');
+        }
+        for (int i = 0; i < words.length; i++) {
+            if (i > 0)
+                key.append(',');
+            // "___" is the same as "3"
+            String raw = words[i].getRawWord();
+            boolean hinted = false;
+            for (int j = 0; j < raw.length() && !hinted; j++) {
+                hinted = Alphabet.isValid(raw.charAt(j));
+            }
+            key.append(hinted ? raw : String.valueOf(words[i].length()));
+        }
+        return key.toString();
+    }
+
+    public boolean setHintForWord(int index, String hint) {
+        if (index >= 0 && index < words.length) {
+            return words[index].setHint(hint);
+        }
+        return false;
+    }
+
+    // the user says word index is this one: all results with a different word there are dropped, and
+    // running solvers only look for this word from now on and leave branches based on other words
+    public boolean acceptWord(int index, String word) {
+        if (index < 0 || index >= words.length)
+            return false;
+        words[index].setHint(word);
+        invalidateResults(index, word, true);
+        feedbackVersion++; // only ever written from one (UI) thread
+        return true;
+    }
+
+    // the user says word index is not this one, same as above the other way round
+    public boolean rejectWord(int index, String word) {
+        if (index < 0 || index >= words.length)
+            return false;
+        words[index].reject(word);
+        invalidateResults(index, word, false);
+        feedbackVersion++;
+        return true;
+    }
+
+    private void invalidateResults(int index, String word, boolean accepted) {
+        // the results being looked at, the ones of later words are based on them and follow along
+        int level = (resultIndex != null) ? resultIndex.getLevels() - 1 : getSolvedWordCount() - 1;
+        ResultIndex results = getResultIndex(level);
+        if (results == null || index >= results.getLevels())
+            return;
+        if (accepted) {
+            results.accept(index, word);
+        } else {
+            results.reject(index, word);
+        }
+    }
+
+    // the results up to word index grouped by their words, brought up to date with the solvers on every call
+    public synchronized ResultIndex getResultIndex(int index) {
+        if (index < 0 || index >= words.length)
+            return null;
+        if (resultIndex == null || resultIndex.getLevels() != index + 1) {
+            resultIndex = new ResultIndex(index + 1);
+        }
+        resultIndex.addAll(words[index].copyPossibleSolutions(resultIndex.getAddedCount()));
+        return resultIndex;
+    }
+
+    public String getLengthString() {
+        StringBuilder lengthString = new StringBuilder();
+        for (int i = 0; i < words.length; i++) {
+            if (i > 0)
+                lengthString.append(',');
+            lengthString.append(words[i].getRawWord());
+        }
+        return lengthString.toString();
+    }
+
+    private void refreshWordLengths() {
+        isSolved = false;
+        minWordLength = matrix.getTotalChars();
+        maxWordLength = 0;
+        lengths = new ArrayList<>(words.length);
+
+        for (Word word : words) {
+            if (word.isSolved()) continue;
+            int l = word.length();
+            if (!lengths.contains(l))
+                lengths.add(l);
+            if (l < minWordLength)
+                minWordLength = l;
+            if (l > maxWordLength)
+                maxWordLength = l;
+        }
+
+        if (minWordLength > maxWordLength) {
+            minWordLength = 0;
+            maxWordLength = 0;
+            isSolved = true;
+        }
+    }
+
+    public int buildProblemWordlist() {
+        refreshWordLengths();
+        int[][] oldWordlist = problemWordlist;
+
+        problemWordlist = new int[maxWordLength + 1][];
+        countsByLength = new byte[maxWordLength + 1][];
+        if (isSolved) return 0;
+
+        int boardMask = matrix.getLetterMask();
+        int[] boardCounts = matrix.getLetterCounts();
+        int[] scratch = new int[LetterCounts.ALPHABET_SIZE];
+        int size = 0;
+
+        for (int l : lengths) {
+            WordlistCache.Entry cached = getCachedWordlist(boardCounts, l);
+            if (cached != null) {
+                problemWordlist[l] = cached.getIds();
+                countsByLength[l] = cached.getCounts();
+                size += cached.getIds().length;
+                continue;
+            }
+
+            // first pass straight on the dictionary, later ones only on the words which fit before
+            int[] candidates = (oldWordlist != null && l < oldWordlist.length) ? oldWordlist[l] : null;
+            int count = (candidates != null) ? candidates.length : dictionary.getWordCount(l);
+            int firstId = dictionary.getFirstId(l);
+
+            // most words already have a letter which isn't on the board at all, the mask rules them out
+            // without touching their letters; the rest needs enough copies of every letter, not just one
+            int[] ids = new int[count];
+            int fitting = 0;
+            for (int i = 0; i < count; i++) {
+                int id = (candidates != null) ? candidates[i] : firstId + i;
+                if ((dictionary.getLetterMask(id) & ~boardMask) == 0 && dictionary.fits(id, boardCounts, scratch))
+                    ids[fitting++] = id;
+            }
+
+            byte[] counts = new byte[fitting * LetterCounts.ALPHABET_SIZE];
+            for (int i = 0; i < fitting; i++) {
+                dictionary.addLetterCounts(ids[i], counts, i * LetterCounts.ALPHABET_SIZE);
+            }
+
+            problemWordlist[l] = Arrays.copyOf(ids, fitting);
+            countsByLength[l] = counts;
+            size += fitting;
+            if (wordlistCache != null && wordlistCache.getDictionary() == dictionary)
+                wordlistCache.put(WordlistCache.keyOf(boardCounts, l), problemWordlist[l], counts);
+        }
+        return size;
+    }
+
+    private WordlistCache.Entry getCachedWordlist(int[] boardCounts, int length) {
+        if (wordlistCache == null || wordlistCache.getDictionary() != dictionary)
+            return null;
+        return wordlistCache.get(WordlistCache.keyOf(boardCounts, length));
+    }
+
+    public int buildWordWordlist() {
+        int lastDoneWord = -1;
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i].isSolved()) {
+                lastDoneWord = i;
+                break;
+            }
+        }
+        lastDoneWord++;
+        if (lastDoneWord == words.length) {
+            return 0;
+        }
+        return buildWordWordlist(lastDoneWord);
+    }
+
+    public int buildAllWordWordlists() {
+        int lastDoneWord = -1;
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i].isSolved()) {
+                lastDoneWord = i;
+                break;
+            }
+        }
+
+        int size = 0;
+        for (int i = lastDoneWord + 1; i < words.length; i++) {
+            size += buildWordWordlist(i);
+        }
+        return size;
+    }
+
+    private int buildWordWordlist(int index) {
+        if (problemWordlist == null) {
+            buildProblemWordlist();
+        }
+        if (wordIndices == null) {
+            wordIndices = new WordTrie[words.length];
+        }
+
+        int boardMask = matrix.getLetterMask();
+        int[] boardCounts = matrix.getLetterCounts();
+        int[] scratch = new int[LetterCounts.ALPHABET_SIZE];
+        int length = words[index].length();
+        WordlistCache.Entry cached = words[index].isFullyHinted() ? null : getCachedWordlist(boardCounts, length);
+
+        // the solvers walk this index one letter per tile instead of scanning the whole list on every step
+        if (words[index].isFullyHinted()) {
+            wordIndices[index] = new WordTrie(Collections.singletonList(words[index].getHintedStart()));
+        } else if (cached != null) {
+            // the same words as below: the problem wordlist of this length was filtered with the same board
+            wordIndices[index] = wordlistCache.getIndex(cached);
+        } else {
+            int[] candidates = (length < problemWordlist.length) ? problemWordlist[length] : null;
+            int[] ids = new int[(candidates != null) ? candidates.length : 0];
+            int fitting = 0;
+            for (int i = 0; i < ids.length; i++) {
+                int id = candidates[i];
+                if ((dictionary.getLetterMask(id) & ~boardMask) == 0 && dictionary.fits(id, boardCounts, scratch))
+                    ids[fitting++] = id;
+            }
+            wordIndices[index] = new WordTrie(dictionary, ids, fitting);
+        }
+        return wordIndices[index].size();
+    }
+
+    // shared by all problems on the same dictionary, solving the same letters again skips the filtering
+    public void setWordlistCache(WordlistCache wordlistCache) {
+        this.wordlistCache = wordlistCache;
+    }
+
+    // shared by all problems on the same dictionary, solving the same problem again reads the results back
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    private boolean canUseResultCache() {
+        // feedback drops results, those left aren't all results of any problem
+        return resultCache != null && resultCache.getDictionary() == dictionary && feedbackVersion == 0;
+    }
+
+    // instead of searching: passes the results of an earlier solve of the same problem to the listener (which
+    // may be null) and adds them to the last word like a depth first search would, at most maxSolutions (0 for
+    // all); false if it wasn't solved before, or this one was started already
+    public boolean solveFromCache(SolutionListener listener, int maxSolutions) {
+        if (!canUseResultCache() || solvers != null || getSolvedWordCount() > 0)
+            return false;
+        List<Solution> results = resultCache.get(getResultKey(), matrix.getRootLetters());
+        if (results == null)
+            return false;
+
+        Word last = words[words.length - 1];
+        for (Solution result : results) {
+            if (maxSolutions > 0 && last.foundSolutionCount() >= maxSolutions)
+                break;
+            last.addSolution(result);
+            if (listener != null)
+                listener.onSolutionFound(result);
+        }
+        return true;
+    }
+
+    // stores the final results for solveFromCache(), only if the search ran until the end without a limit
+    // stopping it early, the user cancelling it or changing the problem
+    public boolean cacheResults() {
+        if (!canUseResultCache() || resultKey == null || solvers != null || stopped || isCancelled())
+            return false;
+        if (!resultKey.equals(getResultKey()))
+            return false;
+        resultCache.put(resultKey, getFinalResults());
+        return true;
+    }
+
+    public boolean startSolvers() {
+        return startSolvers(null);
+    }
+
+    // without a listener only the next unsolved word is searched and its solutions are collected in the word,
+    // with a listener every branch is followed through the last word and complete solutions are passed on
+    // as soon as they are found (needs buildAllWordWordlists() instead of buildWordWordlist() beforehand)
+    public boolean startSolvers(final SolutionListener listener) {
+        return startSolvers(listener, 0);
+    }
+
+    // depth first with a limit: all solvers are stopped as soon as maxSolutions complete solutions were
+    // passed to the listener, the tasks still queued return right away
+    public boolean startSolvers(final SolutionListener listener, int maxSolutions) {
+        if (solvers != null || cancellation.isCancelled())
+            return false;
+
+        this.maxSolutions = (listener == null) ? 0 : maxSolutions;
+        completeSolutions = new AtomicInteger();
+        stopped = false;
+
+        int lastDoneWord = -1;
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i].isSolved()) {
+                lastDoneWord = i;
+                break;
+            }
+        }
+
+        if (lastDoneWord == words.length - 1) {
+            return false;
+        }
+        if (lastDoneWord == -1) {
+            resultKey = getResultKey();
+        }
+
+        // different solutions often leave the same board behind, every distinct board is only searched once
+        // and the words found on it are added for all solutions leading to it
+        List<LetterMatrix> boards = new ArrayList<>();
+        int skipped = 0;
+
+        if (lastDoneWord == -1) {
+            boards.add(this.matrix);
+        } else {
+            Map<String, LetterMatrix> boardsByKey = new HashMap<>();
+            for (Solution previous : words[lastDoneWord].getPossibleSolutions()) {
+                if (previous.isInvalid()) {
+                    skipped++;
+                    continue;
+                }
+                LetterMatrix board = new LetterMatrix(previous);
+                String key = board.getBoardKey();
+                LetterMatrix known = boardsByKey.get(key);
+                if (known == null) {
+                    boardsByKey.put(key, board);
+                    boards.add(board);
+                } else {
+                    known.addSameBoardSolution(previous);
+                }
+            }
+            log.fine("Got " + boards.size() + " distinct boards for " + words[lastDoneWord].foundSolutionCount() + " solutions");
+        }
+
+        int height = matrix.getHeigth();
+        //int width = matrix.getWidth();
+        int total = matrix.getTotalChars();
+        int numSolvers = total * boards.size();
+        List<Runnable> tasks = new ArrayList<>(numSolvers);
+
+        for (int i = 0; i < numSolvers; i++) {
+
+            final LetterMatrix board = boards.get(i / total);
+            final int startCol = (i % total) / height;
+            final int startRow = (i % total) % height;
+
+            final int wordIndex = lastDoneWord + 1;
+
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (isStopped())
+                            return;
+                        solverMain(wordIndex, board.getCopy(), startRow, startCol, listener);
+                    } catch (Exception e) {
+                        log.log(Level.SEVERE, "Solver task failed!", e);
+                    } finally {
+                        solvers.countDown();
+                    }
+                }
+            });
+        }
+
+        if (skipped > 0) {
+            log.fine("Skipped " + (skipped * total) + " tasks based on invalid solutions");
+        }
+
+        log.fine("Will queue " + tasks.size() + " tasks on " + SOLVER_THREADS + " threads...");
+
+        solvers = new CountDownLatch(tasks.size());
+        ExecutorService pool = getSolverPool();
+        for (Runnable task : tasks) {
+            pool.execute(task);
+        }
+
+        return true;
+    }
+
+    // headless entry point: searches all remaining words depth first, streams complete solutions to the
+    // listener (which may be null) and blocks until the search is done; with a result cache set, problems
+    // solved before are read from it instead
+    public List<Solution> solve(SolutionListener listener) {
+        return solve(listener, 0);
+    }
+
+    // same, but done after maxSolutions complete solutions (0 for all), mostly the first one is all we need
+    public List<Solution> solve(SolutionListener listener, int maxSolutions) {
+        return solve(listener, maxSolutions, 0);
+    }
+
+    // same, but gives up after timeBudgetMillis (0 for no limit), check isCancelled() to know if it did
+    public List<Solution> solve(SolutionListener listener, int maxSolutions, long timeBudgetMillis) {
+        if (timeBudgetMillis > 0) {
+            cancellation.cancelAfter(timeBudgetMillis);
+        }
+        if (listener == null) {
+            listener = new SolutionListener() {
+                @Override
+                public void onSolutionFound(Solution solution) {
+                }
+            };
+        }
+
+        boolean searched = false;
+        try {
+            if (solveFromCache(listener, maxSolutions))
+                return getFinalResults();
+
+            buildProblemWordlist();
+            buildAllWordWordlists();
+            if (startSolvers(listener, maxSolutions)) {
+                waitForSolvers();
+                searched = true;
+            }
+        } finally {
+            // isCancelled() stays as it was at the end of the search, whenever the budget would have run out
+            if (timeBudgetMillis > 0)
+                cancellation.finish();
+        }
+        if (searched)
+            cacheResults();
+        return getFinalResults();
+    }
+
+    // cancelling the token makes all solvers of this problem return within a few steps, running and queued ones
+    public void setCancellationToken(CancellationToken cancellation) {
+        this.cancellation = (cancellation == null) ? new CancellationToken() : cancellation;
+    }
+
+    public boolean isCancelled() {
+        return cancellation.isCancelled();
+    }
+
+    public void waitForSolvers() {
+        boolean tryAgain = true;
+        while (tryAgain)
+            try {
+                tryAgain = false;
+                solvers.await();
+            } catch (Exception e) {
+                log.log(Level.WARNING, "Couldn't wait...?", e);
+                tryAgain = true;
+            }
+
+        solvers = null;
+    }
+
+    private static synchronized ExecutorService getSolverPool() {
+        if (solverPool == null) {
+            solverPool = Executors.newFixedThreadPool(SOLVER_THREADS, new ThreadFactory() {
+                private int count = 0;
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "solver-" + (count++));
+                    t.setDaemon(true); // idle pool threads must not keep the process alive
+                    return t;
+                }
+            });
+        }
+        return solverPool;
+    }
+
+    private boolean isStopped() {
+        return stopped || cancellation.isCancelled();
+    }
+
+    // isBasedOnInvalid() plus the user feedback given since the board was last checked: the words leading
+    // to it are checked against the words they were found for, the ones not allowed anymore are invalidated
+    private boolean isPruned(LetterMatrix matrix) {
+        int version = feedbackVersion;
+        if (matrix.getFeedbackVersion() != version) {
+            matrix.setFeedbackVersion(version);
+            List<Solution> base = matrix.getBaseSolutions();
+            for (int i = 0; i < base.size(); i++) {
+                checkFeedback(base.get(i));
+            }
+        }
+        return matrix.isBasedOnInvalid();
+    }
+
+    private void checkFeedback(Solution solution) {
+        int level = -1;
+        for (Solution s = solution; s != null; s = s.getPreviousSolution()) {
+            level++;
+        }
+        for (Solution s = solution; s != null; s = s.getPreviousSolution(), level--) {
+            if (!words[level].allows(s.getFoundWord()))
+                s.setSolutionInvalid();
+        }
+    }
+
+    private void solverMain(int wordIndex, LetterMatrix letterMatrix, int startRow, int startCol, SolutionListener listener) {
+
+        // TODO: problem solving
+        // + get copy of matrix to work with
+        // + check if next tile is valid for searched word (we start at tile -1 so we validate the actual start)
+        // + check next tile against wordlist (keep an internal wordlist so we can check faster)
+        // - + yes: advance to next tile
+        // - + no: try with next tile clockwise
+        // - - + no possible tile found: go one level back and try next tile clockwise (this mechanism may be easiest with a recursive algorithm)
+        // + if we hit the word length and have a valid word:
+        // (- - apply gravity)
+        // - + submit solution
+        // - + go back to start (exclude already taken paths ^^)
+        // + if no paths left: terminate
+
+        char letter = letterMatrix.getLetterAt(startRow, startCol);
+        int code = Alphabet.codeOf(letter);
+        if (code == -1 || !words[wordIndex].matchLetter(0, letter))
+            return;
+        WordTrie.Node node = wordIndices[wordIndex].getRoot().getChild(code);
+        if (node == null)
+            return;
+
+        letterMatrix.addSolutionLetter(startRow, startCol);
+        recursionStep(wordIndex, letterMatrix, node, listener); // work on a copy so we don't accidentally mess up other threads data
+        letterMatrix.removeLastSolutionLetter();
+    }
+
+    private void recursionStep(int wordIndex, LetterMatrix matrix, WordTrie.Node node, SolutionListener listener) {
+        Word word = words[wordIndex];
+
+        if (isStopped() || isPruned(matrix))
+            return;
+
+        // nothing in here allocates until a solution is found: the word so far is the trie node,
+        // and hints are checked letter by letter before a tile is added
+        int length = matrix.getCurrentSolutionLength();
+
+        // every node in the index is the prefix of at least one word, so reaching it is the prefix check
+
+        if (length == word.length()) {
+            if (!node.isWord())
+                return;
+
+            // feedback may have come in after the first letters were checked
+            if (!word.allows(matrix.getCurrentSolutionWord()))
+                return;
+
+            // the letters left over have to be enough for every remaining word
+            if (!canFinish(wordIndex, matrix))
+                return;
+
+            for (Solution solution : matrix.getCurrentSolutions()) {
+                if (listener == null) {
+                    word.addSolution(solution);
+                } else {
+                    continueDepthFirst(wordIndex, solution, listener);
+                }
+            }
+            return;
+        }
+
+        // find next possible tile
+
+        int curRow = matrix.getCurrentSolutionEndRow();
+        int curCol = matrix.getCurrentSolutionEndCol();
+        int width = matrix.getWidth();
+        int cur = curRow * width + curCol;
+
+        BitBoard bits = matrix.getBitBoard();
+        if (bits != null) {
+            // go through the letters the index allows next and pick the free neighbours holding them
+            long free = bits.getNeighbours(cur) & bits.getOccupied() & ~matrix.getUsedCells();
+            for (int codes = node.getChildMask(); codes != 0 && free != 0; codes &= codes - 1) {
+                int code = Integer.numberOfTrailingZeros(codes);
+                long candidates = free & bits.getLetterMask(code);
+                if (candidates == 0 || !word.matchLetter(length, Alphabet.letterOf(code)))
+                    continue;
+                WordTrie.Node next = node.getChild(code);
+                while (candidates != 0) {
+                    int cell = Long.numberOfTrailingZeros(candidates);
+                    candidates &= candidates - 1;
+                    matrix.addSolutionLetter(cell / width, cell % width);
+                    recursionStep(wordIndex, matrix, next, listener);
+                    matrix.removeLastSolutionLetter();
+                    if (isStopped() || matrix.isBasedOnInvalid())
+                        return;
+                }
+            }
+            return;
+        }
+
+        // all boards of this problem have the same size, so they share one neighbour table
+        for (int i = neighbours.getStart(cur); i < neighbours.getEnd(cur); i++) {
+            int cell = neighbours.getCell(i);
+            int row = cell / width;
+            int col = cell % width;
+            if (!matrix.canUseForSolution(row, col))
+                continue;
+            char letter = matrix.getLetterAt(row, col);
+            int code = Alphabet.codeOf(letter);
+            if (code != -1 && word.matchLetter(length, letter)) {
+                WordTrie.Node next = node.getChild(code);
+                if (next == null)
+                    continue;
+                matrix.addSolutionLetter(row, col);
+                recursionStep(wordIndex, matrix, next, listener);
+                matrix.removeLastSolutionLetter();
+            }
+            if (isStopped() || matrix.isBasedOnInvalid())
+                return;
+        }
+
+    }
+
+    private boolean canFinish(int wordIndex, LetterMatrix matrix) {
+        if (wordIndex == words.length - 1)
+            return true;
+
+        int[] remaining = matrix.getRemainingLetterCounts();
+        for (int i = wordIndex + 1; i < words.length; i++) {
+            if (words[i].isFullyHinted()) {
+                if (!LetterCounts.fits(LetterCounts.of(words[i].getHintedStart()), remaining))
+                    return false;
+                continue;
+            }
+
+            int length = words[i].length();
+            byte[] candidates = (length < countsByLength.length) ? countsByLength[length] : null;
+            if (candidates == null)
+                return false;
+            boolean fits = false;
+            for (int from = 0; from < candidates.length; from += LetterCounts.ALPHABET_SIZE) {
+                if (LetterCounts.fits(candidates, from, remaining)) {
+                    fits = true;
+                    break;
+                }
+            }
+            if (!fits)
+                return false;
+        }
+        return true;
+    }
+
+    private void continueDepthFirst(int wordIndex, Solution solution, SolutionListener listener) {
+        if (wordIndex == words.length - 1) {
+            int found = completeSolutions.incrementAndGet();
+            if (maxSolutions > 0 && found > maxSolutions)
+                return; // another solver got there first
+            words[wordIndex].addSolution(solution);
+            listener.onSolutionFound(solution);
+            if (found == maxSolutions)
+                stopped = true;
+            return;
+        }
+
+        // stay on this thread and search the next word on the board left by this one
+        LetterMatrix next = new LetterMatrix(solution);
+        for (int row = 0; row < next.getHeigth(); row++) {
+            for (int col = 0; col < next.getWidth(); col++) {
+                if (isStopped() || isPruned(next))
+                    return;
+                solverMain(wordIndex + 1, next, row, col, listener);
+            }
+        }
+    }
+}
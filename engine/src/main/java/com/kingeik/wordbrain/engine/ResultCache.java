@@ -0,0 +1,252 @@
+package com.kingeik.wordbrain.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Complete results of earlier solves, one file per problem in a directory, so solving the same level again
+// doesn't search again.
+// A problem is its board and word spec (see Problem.getResultKey()), the file name is a hash of that and the
+// dictionary checksum, the key is stored in the file as well in case two of them share a hash.
+// The results are stored as a tree: every solution once with the index of its previous one, so the words
+// shared by many results are only written once.
+// Bounded by the total size of the files, the ones used least recently are deleted first.
+public class ResultCache {
+
+    private static final Logger log = Logger.getLogger(ResultCache.class.getName());
+
+    private static final int MAGIC = 0x57425231; // "WBR1"
+    private static final String SUFFIX = ".results";
+    // previous index, length of the word and length of the path
+    private static final int MIN_SOLUTION_BYTES = 8;
+
+    private Dictionary dictionary;
+    private File directory;
+    private long maxBytes;
+
+    public ResultCache(Dictionary dictionary, File directory, long maxBytes) {
+        this.dictionary = dictionary;
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    public Dictionary getDictionary() {
+        return dictionary;
+    }
+
+    private File fileOf(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest((dictionary.getChecksum() + "\n" + key).getBytes("UTF-8"));
+            StringBuilder name = new StringBuilder(hash.length * 2 + SUFFIX.length());
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16));
+                name.append(Character.forDigit(b & 0xf, 16));
+            }
+            return new File(directory, name.append(SUFFIX).toString());
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // the complete solutions found for the problem with this key, null if it wasn't solved before
+    synchronized List<Solution> get(String key, char[][] rootLetters) {
+        File file = fileOf(key);
+        if (!file.exists())
+            return null;
+
+        List<Solution> results;
+        try {
+            results = read(file, key, rootLetters);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Dropping unreadable results " + file, e);
+            results = null;
+        }
+        if (results == null) {
+            file.delete();
+            return null;
+        }
+        // least recently used goes by the modification time
+        file.setLastModified(System.currentTimeMillis());
+        return results;
+    }
+
+    private List<Solution> read(File file, String key, char[][] rootLetters) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readLong() != dictionary.getChecksum() || !in.readUTF().equals(key))
+                return null;
+
+            // counts are checked before anything is allocated for them, a broken file is dropped like any other
+            int cells = rootLetters.length * rootLetters[0].length;
+            int count = in.readInt();
+            if (count < 0 || count > file.length() / MIN_SOLUTION_BYTES)
+                return null;
+            Solution[] solutions = new Solution[count];
+            for (int i = 0; i < solutions.length; i++) {
+                int previous = in.readInt();
+                String word = in.readUTF();
+                int length = in.readShort();
+                if (length < 0 || length > cells)
+                    return null;
+                short[] path = new short[length];
+                for (int j = 0; j < path.length; j++) {
+                    path[j] = in.readShort();
+                    if (path[j] < 0 || path[j] >= cells)
+                        return null;
+                }
+                // previous ones are always written first
+                if (previous < -1 || previous >= i)
+                    return null;
+                solutions[i] = new Solution(word, path, rootLetters, (previous < 0) ? null : solutions[previous]);
+            }
+
+            count = in.readInt();
+            if (count < 0 || count > solutions.length)
+                return null;
+            List<Solution> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int index = in.readInt();
+                if (index < 0 || index >= solutions.length)
+                    return null;
+                results.add(solutions[index]);
+            }
+            return results;
+        } catch (RuntimeException e) {
+            throw new IOException("Broken results file", e);
+        } finally {
+            in.close();
+        }
+    }
+
+    // invalid results are left out
+    synchronized void put(String key, List<Solution> results) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            log.warning("Can't create " + directory);
+            return;
+        }
+
+        // written next to it and renamed, a file which exists is always complete
+        File file = fileOf(key);
+        File temp = new File(directory, file.getName() + ".tmp");
+        try {
+            write(temp, key, results);
+            if (!temp.renameTo(file)) {
+                file.delete();
+                if (!temp.renameTo(file))
+                    throw new IOException("Can't rename " + temp);
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Could not write results " + file, e);
+            temp.delete();
+            return;
+        }
+        evict();
+    }
+
+    private void write(File file, String key, List<Solution> results) throws IOException {
+        Map<Solution, Integer> indices = new IdentityHashMap<>();
+        List<Solution> solutions = new ArrayList<>();
+        List<Integer> resultIndices = new ArrayList<>();
+        List<Solution> chain = new ArrayList<>();
+        for (Solution result : results) {
+            if (result.isInvalid())
+                continue;
+            // the part of the chain not written yet, previous ones first
+            chain.clear();
+            for (Solution s = result; s != null && !indices.containsKey(s); s = s.getPreviousSolution()) {
+                chain.add(s);
+            }
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                indices.put(chain.get(i), solutions.size());
+                solutions.add(chain.get(i));
+            }
+            resultIndices.add(indices.get(result));
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, false)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeLong(dictionary.getChecksum());
+            out.writeUTF(key);
+            out.writeInt(solutions.size());
+            for (Solution solution : solutions) {
+                Solution previous = solution.getPreviousSolution();
+                out.writeInt((previous == null) ? -1 : indices.get(previous));
+                out.writeUTF(solution.getFoundWord());
+                short[] path = solution.getPath();
+                out.writeShort(path.length);
+                for (short cell : path) {
+                    out.writeShort(cell);
+                }
+            }
+            out.writeInt(resultIndices.size());
+            for (int index : resultIndices) {
+                out.writeInt(index);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void evict() {
+        File[] files = listFiles();
+        long bytes = 0;
+        for (File file : files) {
+            bytes += file.length();
+        }
+        if (bytes <= maxBytes)
+            return;
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                long difference = a.lastModified() - b.lastModified();
+                return (difference < 0) ? -1 : (difference > 0) ? 1 : 0;
+            }
+        });
+        // the newest file stays even if it's too big on its own
+        for (int i = 0; i < files.length - 1 && bytes > maxBytes; i++) {
+            bytes -= files[i].length();
+            files[i].delete();
+        }
+    }
+
+    private File[] listFiles() {
+        File[] files = directory.listFiles();
+        if (files == null)
+            return new File[0];
+        List<File> results = new ArrayList<>(files.length);
+        for (File file : files) {
+            if (file.getName().endsWith(SUFFIX))
+                results.add(file);
+        }
+        return results.toArray(new File[results.size()]);
+    }
+
+    public synchronized int size() {
+        return listFiles().length;
+    }
+
+    public synchronized void clear() {
+        for (File file : listFiles()) {
+            file.delete();
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.kingeik.wordbrain.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Results grouped by their words: a trie with one level per word, every group knows how many valid results
+// it holds. Getting the n-th result walks down by the counts, accepting or rejecting a word looks up its
+// groups on that level and drops them as a whole, so none of this walks all the results.
+// Results invalidated from the outside aren't noticed, so they should only be dropped through here.
+public class ResultIndex {
+
+    private static class Group {
+        private Group parent;
+        private boolean invalid;
+        private int count;
+        // in the order the words were found in, so results keep their position while more are added
+        private Map<String, Group> children = new LinkedHashMap<>();
+        // last level only
+        private List<Solution> results;
+
+        private Group(Group parent) {
+            this.parent = parent;
+        }
+    }
+
+    private int levels;
+    private Group root = new Group(null);
+    private List<Map<String, List<Group>>> groupsByLevel;
+    private int added;
+
+    public ResultIndex(int levels) {
+        this.levels = levels;
+        groupsByLevel = new ArrayList<>(levels);
+        for (int i = 0; i < levels; i++) {
+            groupsByLevel.add(new HashMap<String, List<Group>>());
+        }
+    }
+
+    // the words of the results, a result covers words 0 until levels - 1
+    public int getLevels() {
+        return levels;
+    }
+
+    // results passed to add(), valid or not
+    public synchronized int getAddedCount() {
+        return added;
+    }
+
+    public synchronized void addAll(List<Solution> results) {
+        for (Solution result : results) {
+            add(result);
+        }
+    }
+
+    public synchronized void add(Solution result) {
+        added++;
+        if (result.isInvalid())
+            return;
+
+        String[] words = new String[levels];
+        Solution s = result;
+        for (int level = levels - 1; level >= 0; level--) {
+            words[level] = s.getFoundWord();
+            s = s.getPreviousSolution();
+        }
+
+        Group group = root;
+        for (int level = 0; level < levels; level++) {
+            Group child = group.children.get(words[level]);
+            if (child == null) {
+                child = new Group(group);
+                group.children.put(words[level], child);
+                List<Group> sameWord = groupsByLevel.get(level).get(words[level]);
+                if (sameWord == null) {
+                    sameWord = new ArrayList<>();
+                    groupsByLevel.get(level).put(words[level], sameWord);
+                }
+                sameWord.add(child);
+            }
+            if (child.invalid) {
+                result.setSolutionInvalid(); // found before the word was rejected, but added after
+                return;
+            }
+            group = child;
+        }
+
+        if (group.results == null)
+            group.results = new ArrayList<>();
+        group.results.add(result);
+        for (Group g = group; g != null; g = g.parent) {
+            g.count++;
+        }
+    }
+
+    // valid results
+    public synchronized int size() {
+        return root.count;
+    }
+
+    public synchronized Solution get(int index) {
+        if (index < 0 || index >= root.count)
+            return null;
+
+        Group group = root;
+        while (group.results == null) {
+            for (Group child : group.children.values()) {
+                if (child.invalid)
+                    continue;
+                if (index < child.count) {
+                    group = child;
+                    break;
+                }
+                index -= child.count;
+            }
+        }
+        return group.results.get(index);
+    }
+
+    // drops all results with this word on this level
+    public synchronized void reject(int level, String word) {
+        List<Group> groups = groupsByLevel.get(level).get(word);
+        if (groups == null)
+            return;
+        for (Group group : groups) {
+            invalidate(group);
+        }
+    }
+
+    // drops all results with another word on this level
+    public synchronized void accept(int level, String word) {
+        for (Map.Entry<String, List<Group>> entry : groupsByLevel.get(level).entrySet()) {
+            if (entry.getKey().equals(word))
+                continue;
+            for (Group group : entry.getValue()) {
+                invalidate(group);
+            }
+        }
+    }
+
+    private void invalidate(Group group) {
+        if (group.invalid)
+            return;
+        group.invalid = true;
+        // already dropped with a group further up, its count isn't in the ones above anymore
+        for (Group g = group.parent; g != null; g = g.parent) {
+            if (g.invalid)
+                return;
+        }
+        int count = group.count;
+        for (Group g = group.parent; g != null; g = g.parent) {
+            g.count -= count;
+        }
+        // the solvers and everyone else holding on to these results have to know as well
+        invalidateResults(group);
+    }
+
+    private void invalidateResults(Group group) {
+        if (group.results != null) {
+            for (Solution result : group.results) {
+                result.setSolutionInvalid();
+            }
+            return;
+        }
+        for (Group child : group.children.values()) {
+            invalidateResults(child);
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.kingeik.wordbrain.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Solution {
+
+    // bumped by every setSolutionInvalid(), validity worked out for one count stays good until it changes
+    private static final AtomicInteger invalidations = new AtomicInteger();
+
+    Solution previousSolution;
+    String foundWord;
+
+    // tiles of the word in order, packed as row * width + col
+    private short[] path;
+    // board of the problem before any word was removed, shared by all solutions of that problem
+    private char[][] rootLetters;
+
+    private volatile boolean invalid = false;
+    // invalidation count isInvalid() was last worked out for, shifted left by one, the lowest bit is the result
+    // (one field so threads never see the count of one result with the other result)
+    private volatile long checked = -2; // not worked out yet
+
+    public Solution(String foundWord, short[] path, char[][] rootLetters, Solution previousSolution) {
+        this.previousSolution = previousSolution;
+        this.foundWord = foundWord;
+        this.path = path;
+        this.rootLetters = rootLetters;
+    }
+
+    public Solution getPreviousSolution() {
+        return previousSolution;
+    }
+
+    public String getFoundWord() {
+        return foundWord;
+    }
+
+    public int getHeight() {
+        return rootLetters.length;
+    }
+
+    public int getWidth() {
+        return rootLetters[0].length;
+    }
+
+    public short[] getPath() {
+        return path;
+    }
+
+    char[][] getRootLetters() {
+        return rootLetters;
+    }
+
+    // the board isn't stored per solution, it's rebuilt by replaying gravity for all previous words
+    public char[][] getLettersBeforeSolution() {
+        if (previousSolution == null) {
+            char[][] letters = new char[getHeight()][];
+            for (int row = 0; row < letters.length; row++) {
+                letters[row] = rootLetters[row].clone();
+            }
+            return letters;
+        }
+        char[][] letters = previousSolution.getLettersBeforeSolution();
+        LetterMatrix.applyGravity(letters, previousSolution.path);
+        return letters;
+    }
+
+    public int[][] getSolutionPath() {
+        int height = getHeight();
+        int width = getWidth();
+        int[][] solutionPath = new int[height][width];
+
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                solutionPath[i][j] = -1;
+            }
+        }
+        for (int i = 0; i < path.length; i++) {
+            solutionPath[path[i] / width][path[i] % width] = i;
+        }
+
+        return solutionPath;
+    }
+
+    static int getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    public void setSolutionInvalid() {
+        this.invalid = true;
+        invalidations.incrementAndGet(); // after the flag, so whoever sees the new count also sees the flag
+    }
+
+    // walks the previous solutions only if something was invalidated since the last call, and an invalid
+    // solution never becomes valid again
+    // the count is global, so the first call after any invalidation walks the whole chain (one solution per word
+    // before this one); only solutions sharing previous ones already checked for the new count stop early
+    public boolean isInvalid() {
+        int count = invalidations.get();
+        long last = checked;
+        if ((last & 1) != 0 || (last >> 1) == count)
+            return (last & 1) != 0;
+
+        boolean result = invalid || (previousSolution != null && previousSolution.isInvalid());
+        checked = ((long) count << 1) | (result ? 1 : 0);
+        return result;
+    }
+}
@@ -1,9 +1,10 @@
-package com.kingeik.wordbrain.solver;
+package com.kingeik.wordbrain.engine;
 
-import android.content.Context;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -11,18 +12,19 @@ class Word {
 
     private Lock lock = new ReentrantLock();
 
-    private Context context;
     private Problem parent;
-    private String rawWord;
+    // hints can be set by the user while solvers are running, so they have to be visible to them right away
+    private volatile String rawWord;
 
     private int length = 0;
-    private boolean hasHints;
-    private boolean isSolved;
+    private volatile boolean hasHints;
+    private volatile boolean isSolved;
+    // words the user said are wrong here
+    private Set<String> rejected = new CopyOnWriteArraySet<>();
 
     private List<Solution> possibleSolutions;
 
-    public Word(Context c, Problem p, String word) {
-        this.context = c;
+    public Word(Problem p, String word) {
         this.parent = p;
         this.rawWord = word.toLowerCase();
 
@@ -36,16 +38,16 @@ class Word {
 
             char[] letters = word.toCharArray();
             for (char letter : letters) {
-                if (!parent.getMatrix().contains(letter) && letter != MainActivity.placeholder) {
-                    throw new IllegalArgumentException(context.getString(R.string.ui_toast_unsolvable_chars_mismatch));
+                if (!parent.getMatrix().contains(letter) && letter != Alphabet.placeholder) {
+                    throw new InvalidProblemException(InvalidProblemException.Reason.CHARS_MISMATCH);
                 }
             }
 
-            isSolved = !word.contains("" + MainActivity.placeholder);
+            isSolved = !word.contains("" + Alphabet.placeholder);
         }
 
         if (length <= 0) {
-            throw new IllegalArgumentException(context.getString(R.string.ui_toast_unsolvable_invalid_length));
+            throw new InvalidProblemException(InvalidProblemException.Reason.INVALID_LENGTH);
         }
 
         possibleSolutions = new ArrayList<>();
@@ -67,15 +69,32 @@ class Word {
         return possibleSolutions;
     }
 
+    public List<Solution> copyPossibleSolutions() {
+        this.lock.lock();
+        try {
+            return new ArrayList<>(this.possibleSolutions);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the ones found after the first from
+    public List<Solution> copyPossibleSolutions(int from) {
+        this.lock.lock();
+        try {
+            return new ArrayList<>(this.possibleSolutions.subList(Math.min(from, possibleSolutions.size()), possibleSolutions.size()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public boolean match(String testWord) {
         if (testWord.length() > length)
             return false;
 
         if (hasHints) {
-            char[] testChars = testWord.toLowerCase().toCharArray();
-            char[] wordChars = rawWord.toCharArray();
-            for (int i = 0; i < testChars.length && i < wordChars.length; i++) {
-                if (wordChars[i] != MainActivity.placeholder && wordChars[i] != testChars[i])
+            for (int i = 0; i < testWord.length(); i++) {
+                if (!matchLetter(i, Character.toLowerCase(testWord.charAt(i))))
                     return false;
             }
         }
@@ -83,6 +102,14 @@ class Word {
         return true;
     }
 
+    public boolean matchLetter(int pos, char letter) {
+        if (!hasHints)
+            return pos >= 0 && pos < length;
+
+        char hint = getLetterHint(pos);
+        return hint == Alphabet.placeholder || hint == letter;
+    }
+
     public boolean matchExact(String testWord) {
         return testWord.length() == length && match(testWord);
     }
@@ -92,7 +119,7 @@ class Word {
             return ' ';
 
         if (!hasHints)
-            return MainActivity.placeholder;
+            return Alphabet.placeholder;
 
         return rawWord.charAt(pos);
     }
@@ -112,7 +139,7 @@ class Word {
         if (isSolved)
             return rawWord;
 
-        int firstPlaceholder = rawWord.indexOf(MainActivity.placeholder);
+        int firstPlaceholder = rawWord.indexOf(Alphabet.placeholder);
 
         return rawWord.substring(0, firstPlaceholder);
     }
@@ -131,6 +158,7 @@ class Word {
             return false;
         }
 
+        // rawWord first, solvers which see hasHints must also see the hint
         rawWord = hint;
         hasHints = true;
         isSolved = true;
@@ -138,6 +166,15 @@ class Word {
         return true;
     }
 
+    public void reject(String word) {
+        rejected.add(word);
+    }
+
+    // false if the word doesn't fit the hints or was rejected
+    public boolean allows(String word) {
+        return matchExact(word) && (rejected.isEmpty() || !rejected.contains(word));
+    }
+
     public String getRawWord() {
         return rawWord;
     }
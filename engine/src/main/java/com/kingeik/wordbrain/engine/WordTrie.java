@@ -0,0 +1,118 @@
+package com.kingeik.wordbrain.engine;
+
+import java.util.List;
+
+// prefix index over letter codes (see Alphabet)
+class WordTrie {
+
+    static class Node {
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // bit (1 << code) for every letter with a child, the children are stored in the order of their codes
+        // without gaps, so the child of a code is at the number of bits set below it
+        private int childMask;
+        private Node[] children = NO_CHILDREN;
+        private boolean isWord;
+
+        public Node getChild(int code) {
+            int bit = 1 << code;
+            if ((childMask & bit) == 0)
+                return null;
+            return children[Integer.bitCount(childMask & (bit - 1))];
+        }
+
+        public int getChildMask() {
+            return childMask;
+        }
+
+        public boolean isWord() {
+            return isWord;
+        }
+
+        private Node getOrAddChild(int code) {
+            Node child = getChild(code);
+            if (child != null)
+                return child;
+
+            int bit = 1 << code;
+            int position = Integer.bitCount(childMask & (bit - 1));
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            child = new Node();
+            newChildren[position] = child;
+            children = newChildren;
+            childMask |= bit;
+            return child;
+        }
+    }
+
+    private Node root;
+    private int size;
+    private int nodeCount;
+
+    // words with letters outside the alphabet are left out
+    public WordTrie(List<String> words) {
+        root = new Node();
+        size = 0;
+        for (String w : words) {
+            byte[] codes = new byte[w.length()];
+            boolean valid = true;
+            for (int i = 0; i < codes.length && valid; i++) {
+                codes[i] = (byte) Alphabet.codeOf(w.charAt(i));
+                valid = codes[i] != -1;
+            }
+            if (valid)
+                add(codes, codes.length);
+        }
+    }
+
+    // the first count words of ids, read straight from the dictionary
+    public WordTrie(Dictionary dictionary, int[] ids, int count) {
+        root = new Node();
+        size = 0;
+        byte[] codes = new byte[dictionary.getMaxLength()];
+        for (int i = 0; i < count; i++) {
+            add(codes, dictionary.getCodes(ids[i], codes));
+        }
+    }
+
+    private void add(byte[] word, int length) {
+        Node node = root;
+        for (int i = 0; i < length; i++) {
+            int children = node.children.length;
+            Node parent = node;
+            node = node.getOrAddChild(word[i]);
+            if (parent.children.length != children)
+                nodeCount++;
+        }
+        if (!node.isWord) {
+            node.isWord = true;
+            size++;
+        }
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // without the root, for estimating the memory used
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public boolean contains(String word) {
+        Node node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            int code = Alphabet.codeOf(word.charAt(i));
+            node = (code == -1) ? null : node.getChild(code);
+        }
+        return node != null && node.isWord;
+    }
+
+}
@@ -0,0 +1,237 @@
+package com.kingeik.wordbrain.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Filtered wordlists of earlier problems, so solving the same board again (after changing a hint, or the same
+// level another time) doesn't filter the dictionary again.
+// The words which fit a board only depend on its letters and the word length, so entries are kept per letter
+// multiset and length: problems sharing only some lengths still share those. Every entry holds the dictionary
+// ids, their letter counts and, once a solver asked for it, the prefix index.
+// Bounded by an estimate of the memory used, the least recently used entries are dropped first.
+// Only the ids are written to disk, the rest is cheap to rebuild from them. They are only read back for a
+// dictionary with the same checksum, in any other one they point at other words.
+public class WordlistCache {
+
+    private static final int MAGIC = 0x57424332; // "WBC2"
+
+    // bytes per trie node: header, mask, flag and a slot in the children array of the parent
+    private static final int NODE_BYTES = 32;
+
+    static class Entry {
+        private String key;
+        private int[] ids;
+        private byte[] counts;
+        private WordTrie index;
+
+        private Entry(String key, int[] ids, byte[] counts) {
+            this.key = key;
+            this.ids = ids;
+            this.counts = counts;
+        }
+
+        public int[] getIds() {
+            return ids;
+        }
+
+        public byte[] getCounts() {
+            return counts;
+        }
+
+        private long getBytes() {
+            long bytes = 4L * ids.length + counts.length;
+            if (index != null)
+                bytes += (long) NODE_BYTES * index.getNodeCount();
+            return bytes;
+        }
+    }
+
+    private Dictionary dictionary;
+    private long maxBytes;
+    private long bytes;
+    // entries were added since the last save() or load()
+    private boolean changed;
+    // access ordered, the eldest entry is the least recently used one
+    private Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public WordlistCache(Dictionary dictionary, long maxBytes) {
+        this.dictionary = dictionary;
+        this.maxBytes = maxBytes;
+    }
+
+    public Dictionary getDictionary() {
+        return dictionary;
+    }
+
+    // the board letters sorted, so boards with the same letters in other places share their wordlists
+    static String keyOf(int[] boardCounts, int length) {
+        StringBuilder key = new StringBuilder();
+        key.append(length).append(':');
+        for (int code = 0; code < boardCounts.length; code++) {
+            for (int i = 0; i < boardCounts[code]; i++) {
+                key.append(Alphabet.letterOf(code));
+            }
+        }
+        return key.toString();
+    }
+
+    synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    // the arrays are shared by all problems using the entry from now on and must not be changed anymore
+    synchronized Entry put(String key, int[] ids, byte[] counts) {
+        Entry entry = new Entry(key, ids, counts);
+        Entry old = entries.put(key, entry);
+        if (old != null)
+            bytes -= old.getBytes();
+        bytes += entry.getBytes();
+        evict();
+        changed = true;
+        return entry;
+    }
+
+    // the prefix index over all ids of the entry, built by the first problem asking for it
+    WordTrie getIndex(Entry entry) {
+        synchronized (this) {
+            if (entry.index != null)
+                return entry.index;
+        }
+        // built outside the lock, another solve needing an other entry doesn't have to wait for it
+        WordTrie index = new WordTrie(dictionary, entry.ids, entry.ids.length);
+        synchronized (this) {
+            if (entry.index == null) {
+                entry.index = index;
+                // an evicted entry isn't counted anymore
+                if (entries.get(entry.key) == entry) {
+                    bytes += (long) NODE_BYTES * index.getNodeCount();
+                    evict();
+                }
+            }
+            return entry.index;
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        // the newest entry stays even if it's too big on its own, the problem using it holds on to it anyway
+        while (bytes > maxBytes && entries.size() > 1 && it.hasNext()) {
+            bytes -= it.next().getBytes();
+            it.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized boolean isChanged() {
+        return changed;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+        changed = true;
+    }
+
+    // least recently used first, so loading puts them back in the same order; written next to the file and
+    // moved over it, so the saved cache is never lost half way
+    public synchronized void save(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp, false)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeLong(dictionary.getChecksum());
+            out.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                out.writeUTF(entry.key);
+                int[] ids = entry.ids;
+                out.writeInt(ids.length);
+                for (int id : ids) {
+                    out.writeInt(id);
+                }
+            }
+        } finally {
+            out.close();
+        }
+        Dictionary.replace(temp, file);
+        changed = false;
+    }
+
+    // the word length a key starts with, -1 if it isn't a key from keyOf()
+    private static int lengthOf(String key) {
+        int colon = key.indexOf(':');
+        if (colon <= 0)
+            return -1;
+        try {
+            return Integer.parseInt(key.substring(0, colon));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // adds the entries of a file written by save(), returns how many were read; files written for another
+    // dictionary, or which don't make sense, are ignored
+    public int load(File file) throws IOException {
+        if (!file.exists())
+            return 0;
+
+        List<String> keys = new ArrayList<>();
+        List<int[]> idsByKey = new ArrayList<>();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readLong() != dictionary.getChecksum())
+                return 0;
+            int count = in.readInt();
+            if (count < 0)
+                return 0;
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                int length = lengthOf(key);
+                int idCount = in.readInt();
+                if (length < 0 || idCount < 0 || idCount > file.length() / 4)
+                    return 0;
+                int[] ids = new int[idCount];
+                for (int j = 0; j < ids.length; j++) {
+                    ids[j] = in.readInt();
+                    if (ids[j] < 0 || ids[j] >= dictionary.size() || dictionary.getLength(ids[j]) != length)
+                        return 0;
+                }
+                keys.add(key);
+                idsByKey.add(ids);
+            }
+        } finally {
+            in.close();
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            int[] ids = idsByKey.get(i);
+            byte[] counts = new byte[ids.length * LetterCounts.ALPHABET_SIZE];
+            for (int j = 0; j < ids.length; j++) {
+                dictionary.addLetterCounts(ids[j], counts, j * LetterCounts.ALPHABET_SIZE);
+            }
+            put(keys.get(i), ids, counts);
+        }
+        synchronized (this) {
+            changed = false;
+        }
+        return keys.size();
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.kingeik.wordbrain.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// gravity() on the bitmasks has to leave every letter where LetterMatrix.applyGravity() puts it
+public class BitBoardTest {
+
+    private static char[][] randomBoard(Random random, int width, int height) {
+        char[][] letters = new char[height][width];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                letters[row][col] = Alphabet.letterOf(random.nextInt(Alphabet.SIZE));
+            }
+        }
+        return letters;
+    }
+
+    private static void assertSameBoard(String message, char[][] letters, BitBoard bits) {
+        BitBoard expected = BitBoard.of(letters);
+        assertEquals(message, expected.getOccupied(), bits.getOccupied());
+        for (int code = 0; code < Alphabet.SIZE; code++) {
+            assertEquals(message + " letter " + Alphabet.letterOf(code),
+                    expected.getLetterMask(code), bits.getLetterMask(code));
+        }
+    }
+
+    // removes the cells in this order from both, like a word found on the board
+    private static void remove(String message, char[][] letters, BitBoard bits, short[] path) {
+        long removed = 0;
+        for (short cell : path) {
+            assertTrue(message, letters[cell / letters[0].length][cell % letters[0].length] != ' ');
+            removed |= 1L << cell;
+        }
+        LetterMatrix.applyGravity(letters, path);
+        bits.gravity(removed);
+        assertSameBoard(message, letters, bits);
+    }
+
+    private static short[] cells(int... cells) {
+        short[] path = new short[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            path[i] = (short) cells[i];
+        }
+        return path;
+    }
+
+    private static void assertRemoves(int width, int height, short[] path) {
+        char[][] letters = randomBoard(new Random(width * 100 + height), width, height);
+        remove(width + "x" + height, letters, BitBoard.of(letters), path);
+    }
+
+    @Test
+    public void lastCellOfFullBoard() {
+        // bit 63 is the sign bit, the cells above it shift into it
+        assertRemoves(8, 8, cells(63));
+        assertRemoves(8, 8, cells(63, 55, 47));
+        assertRemoves(8, 8, cells(0, 63));
+    }
+
+    @Test
+    public void wholeRowsAndColumns() {
+        assertRemoves(8, 8, cells(56, 57, 58, 59, 60, 61, 62, 63));
+        assertRemoves(8, 8, cells(7, 15, 23, 31, 39, 47, 55, 63));
+        assertRemoves(8, 8, cells(0, 1, 2, 3, 4, 5, 6, 7));
+    }
+
+    @Test
+    public void nonSquareBoards() {
+        assertRemoves(4, 7, cells(27, 22, 17));
+        assertRemoves(7, 4, cells(27, 20, 13, 6));
+        assertRemoves(5, 3, cells(0, 6, 12));
+    }
+
+    @Test
+    public void singleRowAndColumnOf64() {
+        // nothing is above anything, a shift by the width of 64 would be none at all
+        assertRemoves(64, 1, cells(0, 31, 63));
+        assertRemoves(1, 64, cells(63, 62, 0));
+        assertRemoves(1, 64, cells(10, 11, 12, 40));
+    }
+
+    private static List<Short> occupiedCells(char[][] letters) {
+        int width = letters[0].length;
+        List<Short> cells = new ArrayList<>();
+        for (int cell = 0; cell < letters.length * width; cell++) {
+            if (letters[cell / width][cell % width] != ' ')
+                cells.add((short) cell);
+        }
+        return cells;
+    }
+
+    @Test
+    public void randomPathsMatchApplyGravity() {
+        Random random = new Random(13);
+        for (int round = 0; round < 2000; round++) {
+            int width = 1 + random.nextInt(8);
+            int height = 1 + random.nextInt(8);
+            if (round % 10 == 0) {
+                width = 8;
+                height = 8;
+            }
+            char[][] letters = randomBoard(random, width, height);
+            BitBoard bits = BitBoard.of(letters);
+            String message = "round " + round + ", " + width + "x" + height;
+
+            // words one after another until the board is empty
+            List<Short> occupied = occupiedCells(letters);
+            while (!occupied.isEmpty()) {
+                Collections.shuffle(occupied, random);
+                short[] path = new short[1 + random.nextInt(Math.min(8, occupied.size()))];
+                for (int i = 0; i < path.length; i++) {
+                    path[i] = occupied.get(i);
+                }
+                remove(message, letters, bits, path);
+                occupied = occupiedCells(letters);
+            }
+            assertEquals(message, 0, bits.getOccupied());
+        }
+    }
+
+    @Test
+    public void copyIsNotChangedByGravity() {
+        char[][] letters = randomBoard(new Random(1), 8, 8);
+        BitBoard bits = BitBoard.of(letters);
+        BitBoard copy = bits.getCopy();
+        bits.gravity(1L << 63);
+        assertSameBoard("copy", letters, copy);
+    }
+
+}
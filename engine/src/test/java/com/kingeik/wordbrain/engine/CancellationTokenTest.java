@@ -0,0 +1,73 @@
+package com.kingeik.wordbrain.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CancellationTokenTest {
+
+    private static final long BUDGET = 50;
+
+    private static void waitPast(long millis) throws InterruptedException {
+        Thread.sleep(millis + 200);
+    }
+
+    @Test
+    public void cancel() {
+        CancellationToken token = new CancellationToken();
+        assertFalse(token.isCancelled());
+        token.cancel();
+        assertTrue(token.isCancelled());
+    }
+
+    @Test
+    public void budgetRunsOut() throws InterruptedException {
+        CancellationToken token = new CancellationToken();
+        token.cancelAfter(BUDGET);
+        waitPast(BUDGET);
+        assertTrue(token.isCancelled());
+    }
+
+    @Test
+    public void finishDropsTheBudget() throws InterruptedException {
+        CancellationToken token = new CancellationToken();
+        token.cancelAfter(BUDGET);
+        token.finish();
+        waitPast(BUDGET);
+        assertFalse(token.isCancelled());
+    }
+
+    @Test
+    public void finishKeepsAnExpiredBudget() throws InterruptedException {
+        CancellationToken token = new CancellationToken();
+        token.cancelAfter(BUDGET);
+        waitPast(BUDGET);
+        token.finish();
+        assertTrue(token.isCancelled());
+    }
+
+    @Test
+    public void laterBudgetReplacesEarlierOne() throws InterruptedException {
+        CancellationToken token = new CancellationToken();
+        token.cancelAfter(BUDGET);
+        token.cancelAfter(60 * 1000);
+        waitPast(BUDGET);
+        assertFalse(token.isCancelled());
+        token.finish();
+    }
+
+    @Test
+    public void completeSolveIsNotCancelledAfterItsBudget() throws InterruptedException {
+        Problem problem = new Problem("ab\ncd", "2,2", Dictionary.of(Arrays.asList("ac", "bd", "ab", "cd")));
+        problem.solve(null, 0, BUDGET);
+        assertFalse(problem.isCancelled());
+
+        // the budget would have run out by now, the search was over long before
+        waitPast(BUDGET);
+        assertFalse(problem.isCancelled());
+    }
+
+}
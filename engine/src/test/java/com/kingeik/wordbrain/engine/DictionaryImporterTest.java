@@ -0,0 +1,199 @@
+package com.kingeik.wordbrain.engine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// for wordlists with one lower case word per line the importer has to give the same dictionary as loadText()
+public class DictionaryImporterTest {
+
+    private static final List<String> WORDS = Arrays.asList(
+            "katze", "hund", "straße", "tür", "öl", "über", "äste", "müde", "a", "hund", "zebra", "ärger");
+
+    private File textFile;
+    private File target;
+
+    @Before
+    public void createFiles() throws IOException {
+        textFile = File.createTempFile("words", ".txt");
+        target = File.createTempFile("words", ".bin");
+    }
+
+    @After
+    public void deleteFiles() {
+        textFile.delete();
+        target.delete();
+        new File(target.getPath() + ".tmp").delete();
+    }
+
+    private static byte[] lines(List<String> words, String lineEnd) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (String word : words) {
+            text.append(word).append(lineEnd);
+        }
+        return text.toString().getBytes("UTF-8");
+    }
+
+    // imports the bytes with chunks of chunkSize, reads them with loadText() and compares the dictionaries
+    private void assertSameAsLoadText(byte[] input, int chunkSize) throws IOException {
+        FileOutputStream out = new FileOutputStream(textFile, false);
+        try {
+            out.write(input);
+        } finally {
+            out.close();
+        }
+        Dictionary expected = Dictionary.of(Dictionary.loadText(textFile));
+
+        int count = DictionaryImporter.importDictCc(new TricklingInputStream(input), target, null, chunkSize);
+        Dictionary imported = Dictionary.open(target);
+
+        assertEquals("chunk size " + chunkSize, expected.size(), count);
+        assertEquals("chunk size " + chunkSize, expected.size(), imported.size());
+        for (int id = 0; id < expected.size(); id++) {
+            assertEquals("chunk size " + chunkSize, expected.getWord(id), imported.getWord(id));
+        }
+    }
+
+    @Test
+    public void sameAsLoadText() throws IOException {
+        assertSameAsLoadText(lines(WORDS, "\n"), DictionaryImporter.CHUNK_SIZE);
+    }
+
+    @Test
+    public void sameAsLoadTextWithWindowsLineEnds() throws IOException {
+        assertSameAsLoadText(lines(WORDS, "\r\n"), DictionaryImporter.CHUNK_SIZE);
+    }
+
+    @Test
+    public void sameAsLoadTextWithoutLastLineEnd() throws IOException {
+        assertSameAsLoadText("hund\nkatze\nstraße".getBytes("UTF-8"), DictionaryImporter.CHUNK_SIZE);
+    }
+
+    @Test
+    public void sameAsLoadTextForEveryChunkBoundary() throws IOException {
+        // small chunks cut the input everywhere once: in words, in line ends and in umlauts
+        byte[] input = lines(WORDS, "\r\n");
+        for (int chunkSize = 1; chunkSize <= input.length + 1; chunkSize++) {
+            assertSameAsLoadText(input, chunkSize);
+        }
+    }
+
+    @Test
+    public void umlautSplitAcrossChunks() throws IOException {
+        // "aaa\n" and the first byte of the "ü" end the first chunk, the second byte starts the next
+        byte[] input = "aaa\nüber\n".getBytes("UTF-8");
+        assertEquals((byte) 0xc3, input[4]);
+        assertSameAsLoadText(input, 5);
+    }
+
+    @Test
+    public void umlautSplitAtDefaultChunkSize() throws IOException {
+        // the "ä" of the last word starts on the last byte of the first chunk
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        byte[] line = "abcdefg\n".getBytes("UTF-8");
+        while (input.size() + line.length < DictionaryImporter.CHUNK_SIZE - 2) {
+            input.write(line);
+        }
+        while (input.size() < DictionaryImporter.CHUNK_SIZE - 2) {
+            input.write('x');
+        }
+        input.write('\n');
+        input.write("ärger\nhund\n".getBytes("UTF-8"));
+
+        byte[] bytes = input.toByteArray();
+        assertEquals((byte) 0xc3, bytes[DictionaryImporter.CHUNK_SIZE - 1]);
+        assertSameAsLoadText(bytes, DictionaryImporter.CHUNK_SIZE);
+    }
+
+    @Test
+    public void lineLongerThanChunk() throws IOException {
+        // the chunk grows until the line fits
+        StringBuilder text = new StringBuilder("hund\n");
+        for (int i = 0; i < DictionaryImporter.CHUNK_SIZE + 1000; i++) {
+            text.append((char) ('a' + i % 26));
+        }
+        text.append("\nkatze\nmüde\n");
+        assertSameAsLoadText(text.toString().getBytes("UTF-8"), DictionaryImporter.CHUNK_SIZE);
+    }
+
+    @Test
+    public void readsDictCcLines() throws IOException {
+        // only the first word of the first column, comments and words with other letters are left out
+        String input = "# dict.cc export\n"
+                + "Haus {n}\thouse\tnoun\n"
+                + "ÄRGER\tanger\n"
+                + "  Straße {f}\tstreet\r\n"
+                + "x-ray\tRöntgenstrahl\n"
+                + "\n"
+                + "Tür\tdoor\n"
+                + "Haus\thome\n";
+        int count = DictionaryImporter.importDictCc(
+                new ByteArrayInputStream(input.getBytes("UTF-8")), target, null);
+        Dictionary imported = Dictionary.open(target);
+
+        assertEquals(4, count);
+        Dictionary expected = Dictionary.of(Arrays.asList("haus", "ärger", "straße", "tür"));
+        assertEquals(expected.size(), imported.size());
+        for (int id = 0; id < expected.size(); id++) {
+            assertEquals(expected.getWord(id), imported.getWord(id));
+        }
+    }
+
+    @Test
+    public void reportsProgress() throws IOException {
+        final int[] calls = new int[1];
+        final long[] lastBytes = new long[1];
+        byte[] input = lines(WORDS, "\n");
+        DictionaryImporter.importDictCc(new ByteArrayInputStream(input), target,
+                new DictionaryImporter.ProgressListener() {
+                    @Override
+                    public void onProgress(long bytesRead, int wordCount) {
+                        calls[0]++;
+                        lastBytes[0] = bytesRead;
+                    }
+                }, 8);
+
+        assertTrue(calls[0] > 1);
+        assertEquals(input.length, lastBytes[0]);
+    }
+
+    // hands out a few bytes per read() like a slow download, so chunks aren't always filled in one go
+    private static class TricklingInputStream extends InputStream {
+
+        private final byte[] bytes;
+        private int pos;
+        private int step;
+
+        TricklingInputStream(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read() {
+            return (pos < bytes.length) ? bytes[pos++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (pos >= bytes.length)
+                return -1;
+            int count = Math.min(Math.min(length, 1 + step++ % 7), bytes.length - pos);
+            System.arraycopy(bytes, pos, buffer, offset, count);
+            pos += count;
+            return count;
+        }
+    }
+
+}
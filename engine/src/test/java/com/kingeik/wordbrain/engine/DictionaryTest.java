@@ -0,0 +1,350 @@
+package com.kingeik.wordbrain.engine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DictionaryTest {
+
+    // unsorted, with duplicates, umlauts and words which can't be on a board
+    private static final List<String> WORDS = Arrays.asList(
+            "katze", "hund", "maus", "straße", "tür", "öl", "abc", "hund", "a",
+            "über", "x-ray", "zebra", "", "aab", "baa", "müde", "äste");
+
+    private File textFile;
+    private File binaryFile;
+
+    @Before
+    public void createFiles() throws IOException {
+        textFile = File.createTempFile("words", ".txt");
+        binaryFile = File.createTempFile("words", ".bin");
+
+        StringBuilder text = new StringBuilder();
+        for (String word : WORDS) {
+            text.append(word).append('\n');
+        }
+        FileOutputStream out = new FileOutputStream(textFile, false);
+        try {
+            out.write(text.toString().getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    @After
+    public void deleteFiles() {
+        textFile.delete();
+        binaryFile.delete();
+        new File(textFile.getPath() + ".tmp").delete();
+        new File(binaryFile.getPath() + ".tmp").delete();
+    }
+
+    // what write() should keep: valid words only, once each, by length and then alphabetically
+    private static List<String> expectedWords() {
+        List<String> expected = new ArrayList<>();
+        for (String word : new LinkedHashSet<>(WORDS)) {
+            boolean valid = word.length() > 0;
+            for (int i = 0; i < word.length(); i++) {
+                valid &= Alphabet.isValid(word.charAt(i));
+            }
+            if (valid)
+                expected.add(word);
+        }
+        Collections.sort(expected, new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                if (a.length() != b.length())
+                    return a.length() - b.length();
+                return a.compareTo(b);
+            }
+        });
+        return expected;
+    }
+
+    private Dictionary writeAndOpen() throws IOException {
+        Dictionary.write(Dictionary.loadText(textFile), binaryFile);
+        return Dictionary.open(binaryFile);
+    }
+
+    @Test
+    public void loadTextKeepsAllLines() throws IOException {
+        assertEquals(WORDS, Dictionary.loadText(textFile));
+    }
+
+    @Test
+    public void convertsTextFileInPlace() throws IOException {
+        // what the app does with wordlists imported by old versions
+        Dictionary.write(Dictionary.loadText(textFile), textFile);
+        assertTrue(Dictionary.isBinary(textFile));
+        assertFalse(new File(textFile.getPath() + ".tmp").exists());
+
+        Dictionary dictionary = Dictionary.open(textFile);
+        List<String> expected = expectedWords();
+        assertEquals(expected.size(), dictionary.size());
+        for (int id = 0; id < expected.size(); id++) {
+            assertEquals(expected.get(id), dictionary.getWord(id));
+        }
+    }
+
+    @Test
+    public void writtenFileIsBinary() throws IOException {
+        assertFalse(Dictionary.isBinary(textFile));
+        writeAndOpen();
+        assertTrue(Dictionary.isBinary(binaryFile));
+    }
+
+    @Test
+    public void roundTripKeepsWords() throws IOException {
+        Dictionary dictionary = writeAndOpen();
+        List<String> expected = expectedWords();
+
+        assertEquals(expected.size(), dictionary.size());
+        for (int id = 0; id < dictionary.size(); id++) {
+            String word = expected.get(id);
+            assertEquals(word, dictionary.getWord(id));
+            assertEquals(word.length(), dictionary.getLength(id));
+
+            char[] letters = new char[dictionary.getMaxLength()];
+            assertEquals(word.length(), dictionary.getLetters(id, letters));
+            assertEquals(word, new String(letters, 0, word.length()));
+
+            byte[] codes = new byte[dictionary.getMaxLength()];
+            assertEquals(word.length(), dictionary.getCodes(id, codes));
+            for (int i = 0; i < word.length(); i++) {
+                assertEquals(Alphabet.codeOf(word.charAt(i)), codes[i]);
+            }
+        }
+    }
+
+    @Test
+    public void roundTripKeepsLengths() throws IOException {
+        Dictionary dictionary = writeAndOpen();
+        List<String> expected = expectedWords();
+
+        assertEquals(expected.get(expected.size() - 1).length(), dictionary.getMaxLength());
+        int id = 0;
+        for (int length = 0; length <= dictionary.getMaxLength(); length++) {
+            int count = 0;
+            for (String word : expected) {
+                if (word.length() == length)
+                    count++;
+            }
+            assertEquals("count of length " + length, count, dictionary.getWordCount(length));
+            assertEquals("first id of length " + length, id, dictionary.getFirstId(length));
+            id += count;
+        }
+        assertEquals(0, dictionary.getWordCount(dictionary.getMaxLength() + 1));
+        assertEquals(dictionary.size(), dictionary.getFirstId(dictionary.getMaxLength() + 1));
+    }
+
+    @Test
+    public void fileMatchesInMemoryDictionary() throws IOException {
+        Dictionary file = writeAndOpen();
+        Dictionary memory = Dictionary.of(WORDS);
+
+        assertEquals(memory.size(), file.size());
+        for (int id = 0; id < file.size(); id++) {
+            assertEquals(memory.getWord(id), file.getWord(id));
+            assertEquals(memory.getLetterMask(id), file.getLetterMask(id));
+        }
+        assertEquals(memory.getChecksum(), file.getChecksum());
+    }
+
+    @Test
+    public void masksHoldTheLettersOfTheWord() throws IOException {
+        Dictionary dictionary = writeAndOpen();
+
+        for (int id = 0; id < dictionary.size(); id++) {
+            String word = dictionary.getWord(id);
+            int mask = dictionary.getLetterMask(id);
+            assertEquals(Dictionary.maskOf(word), mask);
+            for (int code = 0; code < Alphabet.SIZE; code++) {
+                boolean contained = word.indexOf(Alphabet.letterOf(code)) != -1;
+                assertEquals(word + " / " + Alphabet.letterOf(code), contained, (mask & (1 << code)) != 0);
+            }
+        }
+    }
+
+    @Test
+    public void fitsNeedsEveryLetterOften() throws IOException {
+        Dictionary dictionary = writeAndOpen();
+        int aab = idOf(dictionary, "aab");
+        int[] scratch = new int[LetterCounts.ALPHABET_SIZE];
+
+        assertTrue(dictionary.fits(aab, available("aabx"), scratch));
+        assertTrue(dictionary.fits(aab, available("baa"), scratch));
+        assertFalse(dictionary.fits(aab, available("abx"), scratch));
+        assertFalse(dictionary.fits(aab, available("aax"), scratch));
+
+        int strasse = idOf(dictionary, "straße");
+        assertTrue(dictionary.fits(strasse, available("eartsß"), scratch));
+        assertFalse(dictionary.fits(strasse, available("eartss"), scratch));
+    }
+
+    @Test
+    public void letterCountsMatchTheWord() throws IOException {
+        Dictionary dictionary = writeAndOpen();
+
+        for (int id = 0; id < dictionary.size(); id++) {
+            byte[] counts = new byte[2 * LetterCounts.ALPHABET_SIZE];
+            dictionary.addLetterCounts(id, counts, LetterCounts.ALPHABET_SIZE);
+            byte[] expected = LetterCounts.of(dictionary.getWord(id));
+            for (int code = 0; code < LetterCounts.ALPHABET_SIZE; code++) {
+                assertEquals(0, counts[code]);
+                assertEquals(expected[code], counts[LetterCounts.ALPHABET_SIZE + code]);
+            }
+        }
+    }
+
+    // the same wordlist in a format from before the checksum ("WBD2") or before the letter masks ("WBD1"):
+    // those cut out, the old magic
+    private void writeOldFormat(boolean withMasks) throws IOException {
+        Dictionary.write(Dictionary.loadText(textFile), binaryFile);
+        ByteBuffer current = ByteBuffer.wrap(readAll(binaryFile));
+        int words = Dictionary.open(binaryFile).size();
+        int masksOffset = 16 + 4 * (current.getInt(4) + 1);
+        int lettersOffset = masksOffset + 4 * words;
+
+        ByteBuffer old = ByteBuffer.allocate(current.limit() - 8 - (withMasks ? 0 : 4 * words));
+        old.putInt(withMasks ? 0x57424432 : 0x57424431);
+        old.putInt(current.getInt(4));
+        old.put(current.array(), 16, (withMasks ? lettersOffset : masksOffset) - 16);
+        old.put(current.array(), lettersOffset, current.limit() - lettersOffset);
+
+        FileOutputStream out = new FileOutputStream(binaryFile, false);
+        try {
+            out.write(old.array());
+        } finally {
+            out.close();
+        }
+    }
+
+    private static byte[] readAll(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(bytes);
+        } finally {
+            in.close();
+        }
+        return bytes;
+    }
+
+    private void assertOpensOldFormat(boolean withMasks) throws IOException {
+        // not from the file, a mapped one would see it being overwritten
+        Dictionary current = Dictionary.of(WORDS);
+        writeOldFormat(withMasks);
+        assertTrue(Dictionary.isBinary(binaryFile));
+        Dictionary old = Dictionary.open(binaryFile);
+
+        assertEquals(current.size(), old.size());
+        for (int id = 0; id < current.size(); id++) {
+            assertEquals(current.getWord(id), old.getWord(id));
+            assertEquals(current.getLetterMask(id), old.getLetterMask(id));
+        }
+        // worked out from the words, so caches saved for the old file still fit after upgrade()
+        assertEquals(current.getChecksum(), old.getChecksum());
+    }
+
+    @Test
+    public void opensFilesWithoutMasks() throws IOException {
+        assertOpensOldFormat(false);
+    }
+
+    @Test
+    public void opensFilesWithoutChecksum() throws IOException {
+        assertOpensOldFormat(true);
+    }
+
+    private void assertUpgradesOldFormat(boolean withMasks) throws IOException {
+        writeAndOpen();
+        byte[] current = readAll(binaryFile);
+        writeOldFormat(withMasks);
+
+        assertTrue(Dictionary.upgrade(binaryFile));
+        assertArrayEquals(current, readAll(binaryFile));
+        assertFalse(new File(binaryFile.getPath() + ".tmp").exists());
+
+        // only once
+        assertFalse(Dictionary.upgrade(binaryFile));
+        assertArrayEquals(current, readAll(binaryFile));
+    }
+
+    @Test
+    public void upgradeWritesTheCurrentFormat() throws IOException {
+        assertUpgradesOldFormat(false);
+    }
+
+    @Test
+    public void upgradeAddsTheChecksum() throws IOException {
+        assertUpgradesOldFormat(true);
+    }
+
+    @Test
+    public void checksumIsReadFromTheFile() throws IOException {
+        writeAndOpen();
+        ByteBuffer bytes = ByteBuffer.wrap(readAll(binaryFile));
+        bytes.putLong(8, 42);
+        FileOutputStream out = new FileOutputStream(binaryFile, false);
+        try {
+            out.write(bytes.array());
+        } finally {
+            out.close();
+        }
+        assertEquals(42, Dictionary.open(binaryFile).getChecksum());
+    }
+
+    @Test
+    public void checksumTellsWordlistsApart() {
+        long checksum = Dictionary.of(Arrays.asList("ab", "cd")).getChecksum();
+        assertEquals(checksum, Dictionary.of(Arrays.asList("cd", "ab", "ab")).getChecksum());
+        // same lengths and letter sets
+        assertNotEquals(checksum, Dictionary.of(Arrays.asList("ba", "cd")).getChecksum());
+        assertNotEquals(checksum, Dictionary.of(Arrays.asList("ab", "ce")).getChecksum());
+        assertNotEquals(checksum, Dictionary.of(Arrays.asList("ab", "cd", "ef")).getChecksum());
+    }
+
+    @Test
+    public void upgradeLeavesOtherFilesAlone() throws IOException {
+        byte[] text = readAll(textFile);
+        assertFalse(Dictionary.upgrade(textFile));
+        assertArrayEquals(text, readAll(textFile));
+    }
+
+    // the letter counts of a board with these letters
+    private static int[] available(String letters) {
+        int[] counts = new int[LetterCounts.ALPHABET_SIZE];
+        for (int i = 0; i < letters.length(); i++) {
+            counts[Alphabet.codeOf(letters.charAt(i))]++;
+        }
+        return counts;
+    }
+
+    private static int idOf(Dictionary dictionary, String word) {
+        for (int id = 0; id < dictionary.size(); id++) {
+            if (dictionary.getWord(id).equals(word))
+                return id;
+        }
+        throw new AssertionError(word + " is missing");
+    }
+
+}
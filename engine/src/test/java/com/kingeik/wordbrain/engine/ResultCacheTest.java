@@ -0,0 +1,351 @@
+package com.kingeik.wordbrain.engine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResultCacheTest {
+
+    private static final String BOARD = "ab\ncd";
+    private static final String LENGTHS = "2,2";
+
+    // every pair of the four letters: 24 results, many of them share their first word
+    private static final List<String> WORDS = pairsOf("abcd");
+
+    private Dictionary dictionary;
+    private File directory;
+
+    private static List<String> pairsOf(String letters) {
+        List<String> words = new ArrayList<>();
+        for (char first : letters.toCharArray()) {
+            for (char second : letters.toCharArray()) {
+                words.add("" + first + second);
+            }
+        }
+        return words;
+    }
+
+    @Before
+    public void createDirectory() throws IOException {
+        dictionary = Dictionary.of(WORDS);
+        directory = File.createTempFile("results", "");
+        directory.delete();
+        assertTrue(directory.mkdir());
+    }
+
+    @After
+    public void deleteDirectory() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private Problem problem(String board, ResultCache cache) {
+        Problem problem = new Problem(board, LENGTHS, dictionary);
+        problem.setResultCache(cache);
+        return problem;
+    }
+
+    private static String sha1(String text) throws Exception {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-1").digest(text.getBytes("UTF-8"))) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private File fileOf(Problem problem) throws Exception {
+        return new File(directory, sha1(dictionary.getChecksum() + "\n" + problem.getResultKey()) + ".results");
+    }
+
+    private static void assertSameChain(Solution expected, Solution actual) {
+        for (; expected != null; expected = expected.getPreviousSolution(), actual = actual.getPreviousSolution()) {
+            assertNotNull(actual);
+            assertEquals(expected.getFoundWord(), actual.getFoundWord());
+            assertArrayEquals(expected.getPath(), actual.getPath());
+        }
+        assertNull(actual);
+    }
+
+    private static int previousSolutionCount(List<Solution> results) {
+        Map<Solution, Boolean> previous = new IdentityHashMap<>();
+        for (Solution result : results) {
+            previous.put(result.getPreviousSolution(), true);
+        }
+        return previous.size();
+    }
+
+    @Test
+    public void keyIsBoardAndWords() {
+        assertEquals("ab\ncd\n2,2", new Problem(BOARD, LENGTHS, dictionary).getResultKey());
+        // blanks are no hint
+        assertEquals("ab\ncd\n2,2", new Problem(BOARD, "__,2", dictionary).getResultKey());
+        assertEquals("ab\ncd\na_,2", new Problem(BOARD, "a_,2", dictionary).getResultKey());
+    }
+
+    @Test
+    public void solveStoresTheResults() throws Exception {
+        ResultCache cache = new ResultCache(dictionary, directory, Long.MAX_VALUE);
+        Problem problem = problem(BOARD, cache);
+        assertEquals(24, problem.solve(null).size());
+
+        assertEquals(1, cache.size());
+        assertTrue(fileOf(problem).isFile());
+    }
+
+    @Test
+    public void storedResultsReadBack() {
+        Problem solved = problem(BOARD, new ResultCache(dictionary, directory, Long.MAX_VALUE));
+        List<Solution> expected = solved.solve(null);
+
+        // another cache on the same directory, as after a restart
+        Problem again = problem(BOARD, new ResultCache(dictionary, directory, Long.MAX_VALUE));
+        final List<Solution> found = new ArrayList<>();
+        assertTrue(again.solveFromCache(new Problem.SolutionListener() {
+            @Override
+            public void onSolutionFound(Solution solution) {
+                found.add(solution);
+            }
+        }, 0));
+
+        List<Solution> results = again.getFinalResults();
+        assertEquals(expected.size(), results.size());
+        assertEquals(expected.size(), found.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameChain(expected.get(i), results.get(i));
+            assertSame(results.get(i), found.get(i));
+        }
+        // shared previous solutions are read back as one solution as well
+        assertEquals(previousSolutionCount(expected), previousSolutionCount(results));
+    }
+
+    @Test
+    public void readBackStopsAtMaxSolutions() {
+        problem(BOARD, new ResultCache(dictionary, directory, Long.MAX_VALUE)).solve(null);
+
+        Problem again = problem(BOARD, new ResultCache(dictionary, directory, Long.MAX_VALUE));
+        assertEquals(1, again.solve(null, 1).size());
+        assertFalse(again.isCancelled());
+    }
+
+    @Test
+    public void otherProblemIsNotSolvedFromCache() {
+        ResultCache cache = new ResultCache(dictionary, directory, Long.MAX_VALUE);
+        problem(BOARD, cache).solve(null);
+
+        assertFalse(problem("ab\ndc", cache).solveFromCache(null, 0));
+        Problem hinted = new Problem(BOARD, "a_,2", dictionary);
+        hinted.setResultCache(cache);
+        assertFalse(hinted.solveFromCache(null, 0));
+    }
+
+    @Test
+    public void otherDictionaryIsNotSolvedFromCache() {
+        problem(BOARD, new ResultCache(dictionary, directory, Long.MAX_VALUE)).solve(null);
+
+        // same size, other words: other checksum, so another file
+        Dictionary other = Dictionary.of(pairsOf("abce"));
+        assertEquals(dictionary.size(), other.size());
+        Problem problem = new Problem(BOARD, LENGTHS, other);
+        problem.setResultCache(new ResultCache(other, directory, Long.MAX_VALUE));
+        assertFalse(problem.solveFromCache(null, 0));
+    }
+
+    @Test
+    public void unreadableFileIsDropped() throws Exception {
+        ResultCache cache = new ResultCache(dictionary, directory, Long.MAX_VALUE);
+        Problem problem = problem(BOARD, cache);
+        problem.solve(null);
+        File file = fileOf(problem);
+        FileOutputStream out = new FileOutputStream(file, false);
+        try {
+            out.write(new byte[] { 'W', 'B', 'R', '1', 0, 0 });
+        } finally {
+            out.close();
+        }
+
+        assertFalse(problem(BOARD, cache).solveFromCache(null, 0));
+        assertFalse(file.exists());
+        assertEquals(0, cache.size());
+    }
+
+    // a results file for the board with a valid header, then count solutions of which only the first is written
+    private File writeBroken(int count, int pathLength) throws Exception {
+        Problem problem = new Problem(BOARD, LENGTHS, dictionary);
+        File file = fileOf(problem);
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file, false));
+        try {
+            out.writeInt(0x57425231);
+            out.writeLong(dictionary.getChecksum());
+            out.writeUTF(problem.getResultKey());
+            out.writeInt(count);
+            out.writeInt(-1);
+            out.writeUTF("ab");
+            out.writeShort(pathLength);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private void assertBrokenIsDropped(File file) {
+        ResultCache cache = new ResultCache(dictionary, directory, Long.MAX_VALUE);
+        String key = new Problem(BOARD, LENGTHS, dictionary).getResultKey();
+        assertNull(cache.get(key, new LetterMatrix(BOARD).getRootLetters()));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void negativeSolutionCountIsDropped() throws Exception {
+        assertBrokenIsDropped(writeBroken(-1, 2));
+    }
+
+    @Test
+    public void hugeSolutionCountIsDropped() throws Exception {
+        assertBrokenIsDropped(writeBroken(Integer.MAX_VALUE, 2));
+    }
+
+    @Test
+    public void negativePathLengthIsDropped() throws Exception {
+        assertBrokenIsDropped(writeBroken(1, -1));
+    }
+
+    @Test
+    public void pathLongerThanTheBoardIsDropped() throws Exception {
+        assertBrokenIsDropped(writeBroken(1, Short.MAX_VALUE));
+    }
+
+    @Test
+    public void leastRecentlyUsedIsDeletedFirst() throws Exception {
+        ResultCache unbounded = new ResultCache(dictionary, directory, Long.MAX_VALUE);
+        Problem first = problem(BOARD, unbounded);
+        Problem second = problem("ab\ndc", unbounded);
+        first.solve(null);
+        second.solve(null);
+        File firstFile = fileOf(first);
+        File secondFile = fileOf(second);
+        assertEquals(2, unbounded.size());
+
+        // the first one was solved earlier, but used after the second one
+        long now = System.currentTimeMillis();
+        assertTrue(firstFile.setLastModified(now - 20000));
+        assertTrue(secondFile.setLastModified(now - 10000));
+        assertTrue(problem(BOARD, unbounded).solveFromCache(null, 0));
+        assertTrue(firstFile.lastModified() > secondFile.lastModified());
+
+        // room for two files of about this size
+        ResultCache cache = new ResultCache(dictionary, directory, firstFile.length() + secondFile.length());
+        Problem third = problem("ba\ncd", cache);
+        third.solve(null);
+
+        assertEquals(2, cache.size());
+        assertTrue(firstFile.exists());
+        assertFalse(secondFile.exists());
+        assertTrue(fileOf(third).exists());
+    }
+
+    @Test
+    public void newestFileStaysEvenIfTooBig() throws Exception {
+        ResultCache cache = new ResultCache(dictionary, directory, 1);
+        Problem problem = problem(BOARD, cache);
+        problem.solve(null);
+        problem("ab\ndc", cache).solve(null);
+
+        assertEquals(1, cache.size());
+        assertFalse(fileOf(problem).exists());
+    }
+
+    @Test
+    public void limitedSolveIsNotCached() {
+        ResultCache cache = new ResultCache(dictionary, directory, Long.MAX_VALUE);
+        Problem problem = problem(BOARD, cache);
+        assertEquals(1, problem.solve(null, 1).size());
+
+        assertEquals(0, cache.size());
+        assertFalse(problem.cacheResults());
+    }
+
+    @Test
+    public void cancelledSolveIsNotCached() {
+        ResultCache cache = new ResultCache(dictionary, directory, Long.MAX_VALUE);
+        final CancellationToken token = new CancellationToken();
+        Problem problem = problem(BOARD, cache);
+        problem.setCancellationToken(token);
+        problem.solve(new Problem.SolutionListener() {
+            @Override
+            public void onSolutionFound(Solution solution) {
+                token.cancel();
+            }
+        });
+
+        assertTrue(problem.isCancelled());
+        assertEquals(0, cache.size());
+        assertFalse(problem.cacheResults());
+    }
+
+    @Test
+    public void budgetedSolveIsCachedIfComplete() throws InterruptedException {
+        ResultCache cache = new ResultCache(dictionary, directory, Long.MAX_VALUE);
+        Problem problem = new Problem(BOARD, LENGTHS, dictionary);
+        assertEquals(24, problem.solve(null, 0, 50).size());
+
+        // storing later still works once the budget would have run out
+        Thread.sleep(250);
+        problem.setResultCache(cache);
+        assertTrue(problem.cacheResults());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void solveAfterFeedbackIsNotCached() {
+        ResultCache cache = new ResultCache(dictionary, directory, Long.MAX_VALUE);
+        Problem rejected = new Problem(BOARD, LENGTHS, dictionary);
+        rejected.solve(null);
+        rejected.setResultCache(cache);
+        assertTrue(rejected.rejectWord(0, "ab"));
+        assertFalse(rejected.cacheResults());
+
+        Problem accepted = new Problem(BOARD, LENGTHS, dictionary);
+        accepted.solve(null);
+        accepted.setResultCache(cache);
+        assertTrue(accepted.acceptWord(0, "ab"));
+        assertFalse(accepted.cacheResults());
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void changedHintIsNotCached() {
+        ResultCache cache = new ResultCache(dictionary, directory, Long.MAX_VALUE);
+        Problem problem = new Problem(BOARD, LENGTHS, dictionary);
+        problem.solve(null);
+        problem.setResultCache(cache);
+        assertTrue(problem.setHintForWord(0, "a_"));
+
+        assertFalse(problem.cacheResults());
+        assertEquals(0, cache.size());
+    }
+
+}
@@ -0,0 +1,258 @@
+package com.kingeik.wordbrain.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+// size() and get() have to give the same results as going through all of them and leaving out invalid ones
+public class ResultIndexTest {
+
+    private static final char[][] BOARD = { { 'a' } };
+    private static final String[] WORDS = { "ab", "cd", "ef", "gh" };
+
+    // a new result with these words, sharing the previous solutions with earlier results which start the same
+    private static Solution chain(Map<String, Solution> solutions, String... words) {
+        Solution previous = null;
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < words.length - 1; i++) {
+            key.append(words[i]).append(',');
+            Solution solution = solutions.get(key.toString());
+            if (solution == null) {
+                solution = new Solution(words[i], new short[0], BOARD, previous);
+                solutions.put(key.toString(), solution);
+            }
+            previous = solution;
+        }
+        return new Solution(words[words.length - 1], new short[0], BOARD, previous);
+    }
+
+    private static Solution chain(String... words) {
+        return chain(new HashMap<String, Solution>(), words);
+    }
+
+    private static List<Solution> valid(List<Solution> results) {
+        List<Solution> valid = new ArrayList<>();
+        for (Solution result : results) {
+            if (!result.isInvalid())
+                valid.add(result);
+        }
+        return valid;
+    }
+
+    private static void assertMatchesFilter(String message, ResultIndex index, List<Solution> added) {
+        List<Solution> valid = valid(added);
+        assertEquals(message, valid.size(), index.size());
+
+        Map<Solution, Boolean> expected = new IdentityHashMap<>();
+        for (Solution result : valid) {
+            expected.put(result, true);
+        }
+        Map<Solution, Boolean> seen = new IdentityHashMap<>();
+        for (int i = 0; i < index.size(); i++) {
+            Solution result = index.get(i);
+            assertNotNull(message, result);
+            assertTrue(message, expected.containsKey(result));
+            assertNull(message, seen.put(result, true));
+        }
+        assertNull(message, index.get(index.size()));
+        assertNull(message, index.get(-1));
+    }
+
+    private static void assertMatchesFilter(ResultIndex index, List<Solution> added) {
+        assertMatchesFilter("", index, added);
+    }
+
+    // two different words out of WORDS, then "xy", "zz" or the first one again: 36 results
+    private static List<Solution> threeWordResults() {
+        Map<String, Solution> solutions = new HashMap<>();
+        List<Solution> results = new ArrayList<>();
+        for (String first : WORDS) {
+            for (String second : WORDS) {
+                if (second.equals(first))
+                    continue;
+                for (String third : Arrays.asList("xy", "zz", first)) {
+                    results.add(chain(solutions, first, second, third));
+                }
+            }
+        }
+        return results;
+    }
+
+    private static ResultIndex indexOf(List<Solution> results) {
+        ResultIndex index = new ResultIndex(3);
+        index.addAll(results);
+        return index;
+    }
+
+    @Test
+    public void emptyIndex() {
+        ResultIndex index = new ResultIndex(2);
+        assertEquals(0, index.size());
+        assertNull(index.get(0));
+        index.reject(0, "ab");
+        index.accept(1, "cd");
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void resultsAreGroupedByWords() {
+        Map<String, Solution> solutions = new HashMap<>();
+        Solution first = chain(solutions, "ab", "cd");
+        Solution second = chain(solutions, "ef", "cd");
+        Solution third = chain(solutions, "ab", "gh");
+        ResultIndex index = new ResultIndex(2);
+        index.addAll(Arrays.asList(first, second, third));
+
+        assertEquals(3, index.size());
+        assertEquals(3, index.getAddedCount());
+        // the ones starting with "ab" together, in the order they were added
+        assertSame(first, index.get(0));
+        assertSame(third, index.get(1));
+        assertSame(second, index.get(2));
+    }
+
+    @Test
+    public void rejectOnFirstLevel() {
+        List<Solution> results = threeWordResults();
+        ResultIndex index = indexOf(results);
+        assertMatchesFilter(index, results);
+
+        index.reject(0, "ab");
+        assertMatchesFilter(index, results);
+        assertEquals(27, index.size());
+    }
+
+    @Test
+    public void rejectOnInnerLevel() {
+        List<Solution> results = threeWordResults();
+        ResultIndex index = indexOf(results);
+
+        index.reject(1, "cd");
+        assertMatchesFilter(index, results);
+        assertEquals(27, index.size());
+    }
+
+    @Test
+    public void rejectOnLastLevel() {
+        List<Solution> results = threeWordResults();
+        ResultIndex index = indexOf(results);
+
+        index.reject(2, "xy");
+        assertMatchesFilter(index, results);
+        assertEquals(24, index.size());
+    }
+
+    @Test
+    public void acceptOnInnerLevel() {
+        List<Solution> results = threeWordResults();
+        ResultIndex index = indexOf(results);
+
+        index.accept(1, "cd");
+        assertMatchesFilter(index, results);
+        assertEquals(9, index.size());
+    }
+
+    @Test
+    public void acceptOnLastLevel() {
+        List<Solution> results = threeWordResults();
+        ResultIndex index = indexOf(results);
+
+        index.accept(2, "zz");
+        assertMatchesFilter(index, results);
+        assertEquals(12, index.size());
+    }
+
+    @Test
+    public void feedbackOnSeveralLevels() {
+        List<Solution> results = threeWordResults();
+        ResultIndex index = indexOf(results);
+
+        // the groups dropped by the second one are partly dropped already
+        index.reject(0, "ab");
+        index.accept(1, "cd");
+        assertMatchesFilter(index, results);
+        index.reject(2, "zz");
+        assertMatchesFilter(index, results);
+        // again, nothing changes
+        index.reject(0, "ab");
+        index.accept(1, "cd");
+        assertMatchesFilter(index, results);
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void addedAfterRejectIsDropped() {
+        // one result of every group of the first two words first
+        List<Solution> earlier = new ArrayList<>();
+        List<Solution> later = new ArrayList<>();
+        for (Solution result : threeWordResults()) {
+            (result.getFoundWord().equals("xy") ? earlier : later).add(result);
+        }
+        ResultIndex index = indexOf(earlier);
+
+        index.reject(1, "ab");
+        // found with the rejected word before the solvers knew, added later
+        index.addAll(later);
+        List<Solution> results = new ArrayList<>(earlier);
+        results.addAll(later);
+        assertMatchesFilter(index, results);
+        assertEquals(results.size(), index.getAddedCount());
+        assertEquals(27, index.size());
+        for (Solution result : results) {
+            if (result.getPreviousSolution().getFoundWord().equals("ab"))
+                assertTrue(result.isInvalid());
+        }
+    }
+
+    @Test
+    public void randomFeedbackMatchesFilter() {
+        for (long seed = 0; seed < 200; seed++) {
+            Random random = new Random(seed);
+            int levels = 1 + random.nextInt(4);
+            // previous solutions with the same words but other paths end up in the same group
+            Map<String, Solution> solutions = new HashMap<>();
+            List<Solution> results = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                String[] words = new String[levels];
+                for (int level = 0; level < levels; level++) {
+                    words[level] = WORDS[random.nextInt(WORDS.length)];
+                }
+                results.add(random.nextBoolean() ? chain(solutions, words) : chain(words));
+            }
+
+            ResultIndex index = new ResultIndex(levels);
+            List<Solution> added = new ArrayList<>();
+            int next = 0;
+            for (int step = 0; step < 8; step++) {
+                int end = Math.min(results.size(), next + random.nextInt(20));
+                for (; next < end; next++) {
+                    index.add(results.get(next));
+                    added.add(results.get(next));
+                }
+                int level = random.nextInt(levels);
+                String word = WORDS[random.nextInt(WORDS.length)];
+                if (random.nextInt(4) == 0) {
+                    index.accept(level, word);
+                } else {
+                    index.reject(level, word);
+                }
+                assertMatchesFilter("seed " + seed + " step " + step, index, added);
+            }
+            assertFalse("seed " + seed, index.size() > added.size());
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.kingeik.wordbrain.engine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class WordlistCacheTest {
+
+    private static final List<String> WORDS = Arrays.asList("ab", "ba", "cd", "dc", "ac", "bd", "abc", "xy", "zz");
+    // same number of words, same lengths, other words
+    private static final List<String> OTHER_WORDS = Arrays.asList("ca", "db", "da", "ad", "bc", "cb", "bca", "yx", "qq");
+
+    private static final String BOARD = "ab\ncd";
+    private static final String LENGTHS = "2,2";
+
+    private File file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = File.createTempFile("wordlists", ".cache");
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+        new File(file.getPath() + ".tmp").delete();
+    }
+
+    private static Problem problem(String board, Dictionary dictionary, WordlistCache cache) {
+        Problem problem = new Problem(board, LENGTHS, dictionary);
+        problem.setWordlistCache(cache);
+        problem.buildAllWordWordlists();
+        return problem;
+    }
+
+    private static String key(String board, int length) {
+        return WordlistCache.keyOf(new LetterMatrix(board).getLetterCounts(), length);
+    }
+
+    @Test
+    public void keyIsTheLetterMultiset() {
+        assertEquals(key("ab\ncd", 2), key("dc\nba", 2));
+        assertFalse(key("ab\ncd", 2).equals(key("ab\ncc", 2)));
+        assertFalse(key("ab\ncd", 2).equals(key("ab\ncd", 3)));
+    }
+
+    @Test
+    public void solvingFillsTheCache() {
+        Dictionary dictionary = Dictionary.of(WORDS);
+        WordlistCache cache = new WordlistCache(dictionary, Long.MAX_VALUE);
+        int uncached = new Problem(BOARD, LENGTHS, dictionary).buildProblemWordlist();
+
+        problem(BOARD, dictionary, cache);
+        assertEquals(1, cache.size());
+        WordlistCache.Entry entry = cache.get(key(BOARD, 2));
+        assertNotNull(entry);
+        assertEquals(uncached, entry.getIds().length);
+        assertTrue(cache.isChanged());
+
+        // another board with the same letters gets the same entry
+        Problem again = new Problem("dc\nba", LENGTHS, dictionary);
+        again.setWordlistCache(cache);
+        assertEquals(uncached, again.buildProblemWordlist());
+        assertEquals(1, cache.size());
+        assertSame(entry, cache.get(key(BOARD, 2)));
+    }
+
+    @Test
+    public void savedEntriesLoadBack() throws IOException {
+        Dictionary dictionary = Dictionary.of(WORDS);
+        WordlistCache cache = new WordlistCache(dictionary, Long.MAX_VALUE);
+        problem(BOARD, dictionary, cache);
+        problem("ab\nxy", dictionary, cache);
+        cache.save(file);
+        assertFalse(cache.isChanged());
+
+        WordlistCache loaded = new WordlistCache(dictionary, Long.MAX_VALUE);
+        assertEquals(cache.size(), loaded.load(file));
+        assertFalse(loaded.isChanged());
+        for (String board : new String[] { BOARD, "ab\nxy" }) {
+            WordlistCache.Entry saved = cache.get(key(board, 2));
+            WordlistCache.Entry read = loaded.get(key(board, 2));
+            assertArrayEquals(saved.getIds(), read.getIds());
+            assertArrayEquals(saved.getCounts(), read.getCounts());
+        }
+    }
+
+    @Test
+    public void otherDictionaryOfTheSameSizeIsIgnored() throws IOException {
+        Dictionary dictionary = Dictionary.of(WORDS);
+        Dictionary other = Dictionary.of(OTHER_WORDS);
+        assertEquals(dictionary.size(), other.size());
+
+        WordlistCache cache = new WordlistCache(dictionary, Long.MAX_VALUE);
+        problem(BOARD, dictionary, cache);
+        cache.save(file);
+
+        WordlistCache loaded = new WordlistCache(other, Long.MAX_VALUE);
+        assertEquals(0, loaded.load(file));
+        assertEquals(0, loaded.size());
+    }
+
+    @Test
+    public void saveReplacesTheOldFile() throws IOException {
+        Dictionary dictionary = Dictionary.of(WORDS);
+        WordlistCache cache = new WordlistCache(dictionary, Long.MAX_VALUE);
+        problem(BOARD, dictionary, cache);
+        cache.save(file);
+        problem("ab\nxy", dictionary, cache);
+        cache.save(file);
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        assertEquals(2, new WordlistCache(dictionary, Long.MAX_VALUE).load(file));
+    }
+
+    // a file for the dictionary with a single entry of this key and id count, the ids are all 0
+    private void writeEntry(Dictionary dictionary, String key, int idCount) throws IOException {
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file, false));
+        try {
+            out.writeInt(0x57424332); // "WBC2"
+            out.writeLong(dictionary.getChecksum());
+            out.writeInt(1);
+            out.writeUTF(key);
+            out.writeInt(idCount);
+            for (int i = 0; i < Math.max(0, Math.min(idCount, 4)); i++) {
+                out.writeInt(0);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    @Test
+    public void malformedKeysAreIgnored() throws IOException {
+        Dictionary dictionary = Dictionary.of(WORDS);
+        for (String key : new String[] { "ab", ":ab", "x:ab", "" }) {
+            writeEntry(dictionary, key, 0);
+            WordlistCache loaded = new WordlistCache(dictionary, Long.MAX_VALUE);
+            assertEquals(key, 0, loaded.load(file));
+            assertEquals(key, 0, loaded.size());
+        }
+        // the same file with a good key is read
+        writeEntry(dictionary, "2:abcd", 0);
+        assertEquals(1, new WordlistCache(dictionary, Long.MAX_VALUE).load(file));
+    }
+
+    @Test
+    public void impossibleIdCountsAreIgnored() throws IOException {
+        Dictionary dictionary = Dictionary.of(WORDS);
+        for (int idCount : new int[] { -1, Integer.MAX_VALUE }) {
+            writeEntry(dictionary, "2:abcd", idCount);
+            assertEquals(0, new WordlistCache(dictionary, Long.MAX_VALUE).load(file));
+        }
+    }
+
+    @Test
+    public void missingFileLoadsNothing() throws IOException {
+        file.delete();
+        assertEquals(0, new WordlistCache(Dictionary.of(WORDS), Long.MAX_VALUE).load(file));
+    }
+
+    @Test
+    public void cacheOfAnotherDictionaryIsNotUsed() {
+        Dictionary dictionary = Dictionary.of(WORDS);
+        WordlistCache cache = new WordlistCache(Dictionary.of(OTHER_WORDS), Long.MAX_VALUE);
+        problem(BOARD, dictionary, cache);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsDroppedFirst() {
+        Dictionary dictionary = Dictionary.of(WORDS);
+        WordlistCache cache = new WordlistCache(dictionary, Long.MAX_VALUE);
+        problem(BOARD, dictionary, cache);
+        problem("ab\nxy", dictionary, cache);
+        long bytes = cache.getBytes();
+
+        // room for both, using the first one makes the second the eldest
+        WordlistCache bounded = new WordlistCache(dictionary, bytes);
+        problem(BOARD, dictionary, bounded);
+        problem("ab\nxy", dictionary, bounded);
+        assertEquals(2, bounded.size());
+        bounded.get(key(BOARD, 2));
+
+        problem("ab\nzz", dictionary, bounded);
+        assertNotNull(bounded.get(key(BOARD, 2)));
+        assertEquals(null, bounded.get(key("ab\nxy", 2)));
+        assertTrue(bounded.getBytes() <= bytes);
+    }
+
+}